@@ -0,0 +1,68 @@
+package com.example.bench;
+
+import com.example.dispatch.Dispatcher;
+import com.example.dispatch.SameThreadDispatcher;
+import com.example.dispatch.SingleThreadDispatcher;
+import com.example.model.ClockModel;
+import com.example.model.SystemTimeStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ClockModel.addEvent под 1..N производителями (тикер + потоки приложения).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClockModelBenchmark {
+
+    @Param({"20", "10000"})
+    int maxEvents;
+
+    @Param({"same-thread", "single-thread"})
+    String dispatch;
+
+    Dispatcher dispatcher;
+    ClockModel model;
+
+    @Setup
+    public void setUp() {
+        dispatcher = "same-thread".equals(dispatch)
+                ? new SameThreadDispatcher()
+                : new SingleThreadDispatcher("bench-dispatch");
+        model = new ClockModel(new SystemTimeStrategy(), maxEvents, dispatcher);
+    }
+
+    @TearDown
+    public void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object addEvent_1() {
+        return model.addEvent("Tick");
+    }
+
+    @Benchmark
+    @Threads(2)
+    public Object addEvent_2() {
+        return model.addEvent("Tick");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object addEvent_4() {
+        return model.addEvent("Tick");
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object addEvent_max() {
+        return model.addEvent("Tick");
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.bench;
+
+import com.example.model.ClockEvent;
+import com.example.view.ClockPanel;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отрисовка ClockPanel в offscreen BufferedImage (headless, без EDT и окна).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class ClockPanelRenderBenchmark {
+
+    @Param({"Часы", "Секундомер"})
+    String mode;
+
+    @Param({"20", "1000"})
+    int events;
+
+    ClockPanel panel;
+    BufferedImage image;
+    Graphics2D g;
+    long time;
+
+    @Setup
+    public void setUp() {
+        panel = new ClockPanel();
+        panel.setSize(350, 350);
+        panel.onModeChanged(mode);
+        List<ClockEvent> batch = new ArrayList<>(events);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < events; i++) {
+            batch.add(new ClockEvent(i, now - i * 137L, "Tick"));
+        }
+        panel.onEventsAdded(batch);
+        image = new BufferedImage(350, 350, BufferedImage.TYPE_INT_ARGB);
+        g = image.createGraphics();
+        time = now;
+    }
+
+    @TearDown
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paint() {
+        time += 16;
+        panel.onTimeUpdated(time);
+        panel.paint(g);
+        return image;
+    }
+}
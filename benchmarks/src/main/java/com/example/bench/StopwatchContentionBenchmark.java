@@ -0,0 +1,70 @@
+package com.example.bench;
+
+import com.example.model.StopwatchStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StopwatchStrategy.getCurrentTimeMillis под конкуренцией: несколько читателей
+ * и поток, который параллельно останавливает/запускает секундомер; фиксация кругов из нескольких потоков.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class StopwatchContentionBenchmark {
+
+    StopwatchStrategy stopwatch;
+
+    @Setup
+    public void setUp() {
+        stopwatch = new StopwatchStrategy();
+        stopwatch.start();
+    }
+
+    // круги копятся, поэтому на каждой итерации начинаем заново
+    @Setup(Level.Iteration)
+    public void resetLaps() {
+        stopwatch.reset();
+        stopwatch.start();
+    }
+
+    @Benchmark
+    @Group("readOnly")
+    @GroupThreads(4)
+    public long readOnly() {
+        return stopwatch.getCurrentTimeMillis();
+    }
+
+    @Benchmark
+    @Group("readWhileToggling")
+    @GroupThreads(3)
+    public long reader() {
+        return stopwatch.getCurrentTimeMillis();
+    }
+
+    @Benchmark
+    @Group("readWhileToggling")
+    @GroupThreads(1)
+    public void toggler() {
+        stopwatch.stop();
+        stopwatch.start();
+    }
+
+    @Benchmark
+    @Group("lapWhileReading")
+    @GroupThreads(3)
+    public long lap() {
+        return stopwatch.lap();
+    }
+
+    @Benchmark
+    @Group("lapWhileReading")
+    @GroupThreads(1)
+    public long lapReader() {
+        return stopwatch.getCurrentTimeMillis();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.bench;
+
+import com.example.model.ClockSource;
+import com.example.model.CoarseClockSource;
+import com.example.model.StopwatchStrategy;
+import com.example.model.SystemTimeStrategy;
+import com.example.model.WorldClockStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Форматирование времени стратегиями — основной источник аллокаций на каждом тике/кадре.
+ * clock=coarse — те же стратегии на кэшированных часах вместо системного вызова на каждое чтение.
+ * worldClock* — табло на 50 зон: одно чтение часов на все зоны.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TimeStrategyBenchmark {
+
+    @Param({"system", "coarse"})
+    String clock;
+
+    SystemTimeStrategy systemTime;
+    StopwatchStrategy stopwatch;
+    WorldClockStrategy worldClock;
+    CoarseClockSource coarse;
+    final StringBuilder sink = new StringBuilder(32);
+    final char[] zoneBuf = new char[16];
+
+    @Setup
+    public void setUp() {
+        ClockSource source = ClockSource.system();
+        if ("coarse".equals(clock)) {
+            coarse = new CoarseClockSource(1, TimeUnit.MILLISECONDS);
+            source = coarse;
+        }
+        systemTime = new SystemTimeStrategy(source);
+        stopwatch = new StopwatchStrategy(source);
+        stopwatch.start();
+        List<ZoneId> zones = ZoneId.getAvailableZoneIds().stream().sorted().limit(50).map(ZoneId::of).toList();
+        worldClock = new WorldClockStrategy(zones, source);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (coarse != null) coarse.close();
+    }
+
+    @Benchmark
+    public long systemTimeRead() {
+        return systemTime.getCurrentTimeMillis();
+    }
+
+    @Benchmark
+    public long stopwatchRead() {
+        return stopwatch.getCurrentTimeMillis();
+    }
+
+    @Benchmark
+    public String systemTimeDisplay() {
+        return systemTime.getDisplayTime();
+    }
+
+    @Benchmark
+    public String stopwatchDisplay() {
+        return stopwatch.getDisplayTime();
+    }
+
+    @Benchmark
+    public StringBuilder systemTimeDisplayToSink() {
+        sink.setLength(0);
+        systemTime.appendDisplayTime(sink);
+        return sink;
+    }
+
+    @Benchmark
+    public StringBuilder stopwatchDisplayToSink() {
+        sink.setLength(0);
+        stopwatch.appendDisplayTime(sink);
+        return sink;
+    }
+
+    @Benchmark
+    public int worldClockFormatAllZones() {
+        long now = worldClock.getCurrentTimeMillis();
+        int n = 0;
+        for (int i = 0; i < worldClock.getZoneCount(); i++) {
+            n += worldClock.formatZone(i, now, zoneBuf, 0);
+        }
+        return n;
+    }
+}
@@ -1,11 +1,15 @@
 package com.example;
 
 import com.example.app.MainViewController;
+import com.example.app.StartupTimer;
 import com.example.factory.DefaultTimeStrategyFactory;
 
 public class Main {
 
     public static void main(String[] args) {
-        new MainViewController(new DefaultTimeStrategyFactory()).start();
+        StartupTimer.mark();
+        // -Dclock.startup=lazy — быстрый старт с отложенной инициализацией, для замеров; по умолчанию — прежний порядок
+        boolean lazy = "lazy".equals(System.getProperty("clock.startup"));
+        new MainViewController(new DefaultTimeStrategyFactory(), lazy).start();
     }
 }
\ No newline at end of file
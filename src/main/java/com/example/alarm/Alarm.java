@@ -0,0 +1,57 @@
+package com.example.alarm;
+
+/**
+ * Будильник AlarmService: в срок модель получает событие с его сообщением.
+ * Срок — epoch millis часов планировщика сервиса. Состояние меняется только под замком сервиса.
+ */
+public final class Alarm {
+
+    private final AlarmService service;
+    private final String message;
+    private final long periodMillis;
+    long deadlineMillis; // guarded by service
+    long order;          // guarded by service; порядок при равных сроках
+    int heapIndex = -1;  // guarded by service; -1 — не в куче
+
+    Alarm(AlarmService service, String message, long deadlineMillis, long periodMillis) {
+        this.service = service;
+        this.message = message;
+        this.deadlineMillis = deadlineMillis;
+        this.periodMillis = periodMillis;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /** Период повтора, мс; 0 — однократный. */
+    public long getPeriodMillis() {
+        return periodMillis;
+    }
+
+    public long getDeadlineMillis() {
+        return service.deadlineOf(this);
+    }
+
+    /** Ждёт срабатывания (не отменён и, если однократный, ещё не сработал). */
+    public boolean isActive() {
+        return service.isActive(this);
+    }
+
+    /** @return false, если будильник уже сработал или отменён */
+    public boolean cancel() {
+        return service.cancel(this);
+    }
+
+    /**
+     * Перенести на новый срок; сработавший однократный или отменённый будильник снова становится активным.
+     */
+    public void reschedule(long deadlineMillis) {
+        service.reschedule(this, deadlineMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "Alarm[" + message + " @ " + getDeadlineMillis() + (periodMillis > 0 ? " every " + periodMillis + " ms" : "") + "]";
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.alarm;
+
+import com.example.model.ClockModel;
+import com.example.model.CountdownStrategy;
+import com.example.scheduler.ExecutorTickScheduler;
+import com.example.scheduler.TickScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Будильники и таймеры поверх модели: в срок будильника модель получает событие с его сообщением
+ * (recordEvent), слушатели видят его как любое другое событие.
+ *
+ * Сроки лежат в индексированной куче (DeadlineHeap); в планировщике стоит одна задача —
+ * на ближайший срок, поэтому сотни тысяч будильников не опрашиваются на тиках, а отмена
+ * и перенос стоят O(log n). Сроки — epoch millis часов планировщика (TickScheduler.currentTimeMillis),
+ * с VirtualTickScheduler будильники проверяются на виртуальном времени.
+ */
+public final class AlarmService implements AutoCloseable {
+
+    // сколько будильников срабатывает за один заход; остальные — следующей задачей сразу же
+    private static final int MAX_FIRES_PER_WAKE = 4096;
+
+    private final ClockModel model;
+    private final TickScheduler scheduler;
+    private final boolean ownsScheduler;
+    private final DeadlineHeap heap = new DeadlineHeap(); // guarded by this
+    private final AtomicLong fired = new AtomicLong();
+    private long nextOrder;               // guarded by this
+    private TickScheduler.Handle wakeup;  // guarded by this
+    private long armedMillis;             // guarded by this; срок, на который стоит wakeup
+    private long wakeGeneration;          // guarded by this; отменённая, но уже запущенная задача себя узнаёт
+    private boolean closed;               // guarded by this
+
+    public AlarmService(ClockModel model) {
+        this(model, new ExecutorTickScheduler("clock-alarms"), true);
+    }
+
+    /** На общем планировщике (тот же, что у тикеров, или VirtualTickScheduler в тестах). */
+    public AlarmService(ClockModel model, TickScheduler scheduler) {
+        this(model, scheduler, false);
+    }
+
+    private AlarmService(ClockModel model, TickScheduler scheduler, boolean ownsScheduler) {
+        this.model = model;
+        this.scheduler = scheduler;
+        this.ownsScheduler = ownsScheduler;
+    }
+
+    public Alarm schedule(String message, long deadlineMillis) {
+        return add(message, deadlineMillis, 0);
+    }
+
+    public Alarm scheduleAfter(String message, long delay, TimeUnit unit) {
+        return schedule(message, scheduler.currentTimeMillis() + unit.toMillis(delay));
+    }
+
+    /** Повторяющийся будильник; пропущенные сроки (например, после сна машины) не догоняются. */
+    public Alarm scheduleRepeating(String message, long firstDeadlineMillis, long periodMillis) {
+        if (periodMillis <= 0) throw new IllegalArgumentException("periodMillis must be > 0, got " + periodMillis);
+        return add(message, firstDeadlineMillis, periodMillis);
+    }
+
+    /**
+     * Событие message в момент окончания обратного отсчёта: будильник ставится на каждый старт
+     * отсчёта и снимается при остановке или сбросе. Остаток откладывается от часов планировщика,
+     * поэтому у отсчёта могут быть свои часы — важно лишь, чтобы они шли с той же скоростью
+     * (виртуальный отсчёт с системным планировщиком сработает по реальному времени).
+     */
+    public void bindCountdown(CountdownStrategy countdown, String message) {
+        Alarm alarm = new Alarm(this, message, 0, 0);
+        countdown.setCountdownListener(remaining -> {
+            if (remaining < 0) alarm.cancel();
+            else alarm.reschedule(scheduler.currentTimeMillis() + remaining);
+        });
+    }
+
+    private synchronized Alarm add(String message, long deadlineMillis, long periodMillis) {
+        Alarm a = new Alarm(this, message, deadlineMillis, periodMillis);
+        enqueue(a);
+        return a;
+    }
+
+    // guarded by this
+    private void enqueue(Alarm a) {
+        if (closed) throw new IllegalStateException("AlarmService is closed");
+        a.order = nextOrder++;
+        heap.add(a);
+        arm();
+    }
+
+    synchronized boolean cancel(Alarm a) {
+        if (a.heapIndex < 0) return false;
+        heap.remove(a);
+        // задача на прежний ближайший срок остаётся: проснётся, ничего не найдёт и встанет на новый
+        return true;
+    }
+
+    synchronized void reschedule(Alarm a, long deadlineMillis) {
+        a.deadlineMillis = deadlineMillis;
+        if (a.heapIndex >= 0) {
+            a.order = nextOrder++;
+            heap.update(a);
+            arm();
+        } else {
+            enqueue(a);
+        }
+    }
+
+    synchronized long deadlineOf(Alarm a) {
+        return a.deadlineMillis;
+    }
+
+    synchronized boolean isActive(Alarm a) {
+        return a.heapIndex >= 0;
+    }
+
+    /** Сколько будильников ждут срабатывания. */
+    public synchronized int size() {
+        return heap.size();
+    }
+
+    /** Сколько срабатываний было за всё время. */
+    public long getFiredCount() {
+        return fired.get();
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            heap.clear();
+            if (wakeup != null) wakeup.cancel();
+            wakeup = null;
+            wakeGeneration++;
+        }
+        if (ownsScheduler) scheduler.shutdown();
+    }
+
+    // guarded by this: задача в планировщике должна стоять не позже ближайшего срока
+    private void arm() {
+        Alarm top = heap.peek();
+        if (top == null || closed) return;
+        if (wakeup != null && armedMillis <= top.deadlineMillis) return;
+        if (wakeup != null) wakeup.cancel();
+        long gen = ++wakeGeneration;
+        armedMillis = top.deadlineMillis;
+        long delay = Math.max(0, top.deadlineMillis - scheduler.currentTimeMillis());
+        wakeup = scheduler.schedule(() -> onWake(gen), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void onWake(long gen) {
+        List<Alarm> due = collectDue(gen);
+        for (Alarm a : due) {
+            try {
+                model.recordEvent(a.getMessage());
+                fired.incrementAndGet();
+            } catch (RuntimeException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    private synchronized List<Alarm> collectDue(long gen) {
+        if (gen != wakeGeneration) return List.of(); // задачу уже заменили
+        wakeup = null;
+        long now = scheduler.currentTimeMillis();
+        List<Alarm> due = new ArrayList<>();
+        Alarm top;
+        while (due.size() < MAX_FIRES_PER_WAKE && (top = heap.peek()) != null && top.deadlineMillis <= now) {
+            due.add(top);
+            long period = top.getPeriodMillis();
+            if (period > 0) {
+                // следующий срок строго в будущем, без серии догоняющих срабатываний
+                long missed = (now - top.deadlineMillis) / period;
+                top.deadlineMillis += (missed + 1) * period;
+                top.order = nextOrder++;
+                heap.update(top);
+            } else {
+                heap.poll();
+            }
+        }
+        arm();
+        return due;
+    }
+}
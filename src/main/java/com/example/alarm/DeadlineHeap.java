@@ -0,0 +1,109 @@
+package com.example.alarm;
+
+import java.util.Arrays;
+
+/**
+ * Индексированная двоичная куча будильников по сроку: каждый будильник знает свою позицию в куче,
+ * поэтому отмена и перенос — O(log n) без поиска. При равных сроках раньше срабатывает
+ * запланированный раньше. Не потокобезопасна — AlarmService держит её под своим замком.
+ */
+final class DeadlineHeap {
+
+    private Alarm[] heap = new Alarm[64];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    Alarm peek() {
+        return size == 0 ? null : heap[0];
+    }
+
+    void add(Alarm a) {
+        if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+        a.heapIndex = size;
+        heap[size++] = a;
+        siftUp(a.heapIndex);
+    }
+
+    Alarm poll() {
+        if (size == 0) return null;
+        Alarm top = heap[0];
+        removeAt(0);
+        return top;
+    }
+
+    void remove(Alarm a) {
+        removeAt(a.heapIndex);
+    }
+
+    /** Срок a уже изменён — восстановить порядок. */
+    void update(Alarm a) {
+        int i = a.heapIndex;
+        siftUp(i);
+        if (a.heapIndex == i) siftDown(i);
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            heap[i].heapIndex = -1;
+            heap[i] = null;
+        }
+        size = 0;
+    }
+
+    private void removeAt(int i) {
+        Alarm removed = heap[i];
+        removed.heapIndex = -1;
+        int last = --size;
+        if (i != last) {
+            Alarm moved = heap[last];
+            heap[i] = moved;
+            moved.heapIndex = i;
+            heap[last] = null;
+            siftUp(i);
+            if (moved.heapIndex == i) siftDown(i);
+        } else {
+            heap[last] = null;
+        }
+        // после массовой отмены не держим огромный массив
+        if (heap.length > 64 && size < heap.length / 4) heap = Arrays.copyOf(heap, heap.length / 2);
+    }
+
+    private static boolean less(Alarm a, Alarm b) {
+        return a.deadlineMillis < b.deadlineMillis
+                || (a.deadlineMillis == b.deadlineMillis && a.order < b.order);
+    }
+
+    private void siftUp(int i) {
+        Alarm a = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            Alarm p = heap[parent];
+            if (!less(a, p)) break;
+            heap[i] = p;
+            p.heapIndex = i;
+            i = parent;
+        }
+        heap[i] = a;
+        a.heapIndex = i;
+    }
+
+    private void siftDown(int i) {
+        Alarm a = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && less(heap[right], heap[child])) child = right;
+            Alarm c = heap[child];
+            if (!less(c, a)) break;
+            heap[i] = c;
+            c.heapIndex = i;
+            i = child;
+        }
+        heap[i] = a;
+        a.heapIndex = i;
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.analytics;
+
+import com.example.metrics.LagHistogram;
+import com.example.model.EventColumns;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+
+/**
+ * Статистика по снимку истории (ClockModel.snapshotEvents): интервалы между событиями,
+ * частоты сообщений, перцентили по скользящим окнам.
+ *
+ * Считается по примитивным массивам снимка; большие снимки делятся на куски по LEAF_SIZE
+ * и считаются в ForkJoinPool (по умолчанию общий), частичные результаты складываются.
+ * Для живого окна без пересчёта истории — SlidingWindowStats.
+ */
+public final class EventAnalytics {
+
+    // кусок, который считается одним потоком
+    static final int LEAF_SIZE = 1 << 14;
+
+    private EventAnalytics() {
+    }
+
+    /** Гистограмма интервалов между соседними событиями, мс. */
+    public static LagHistogram intervalHistogram(EventColumns events) {
+        return intervalHistogram(events, ForkJoinPool.commonPool());
+    }
+
+    public static LagHistogram intervalHistogram(EventColumns events, ForkJoinPool pool) {
+        if (events.size() < 2) return new LagHistogram();
+        return pool.invoke(new IntervalTask(events, 1, events.size()));
+    }
+
+    /**
+     * Точные перцентили интервалов между соседними событиями, мс (параллельная сортировка копии).
+     * @param percentiles от 0 до 100
+     * @return значения в порядке percentiles; нули, если событий меньше двух
+     */
+    public static long[] intervalPercentiles(EventColumns events, double... percentiles) {
+        int n = events.size() - 1;
+        if (n < 1) return new long[percentiles.length];
+        long[] intervals = new long[n];
+        Arrays.parallelSetAll(intervals, i -> Math.max(0, events.timestampAt(i + 1) - events.timestampAt(i)));
+        Arrays.parallelSort(intervals);
+        long[] result = new long[percentiles.length];
+        for (int i = 0; i < percentiles.length; i++) {
+            result[i] = intervals[rank(percentiles[i], n)];
+        }
+        return result;
+    }
+
+    /** Частоты сообщений по убыванию числа событий. */
+    public static List<MessageRate> messageRates(EventColumns events) {
+        return messageRates(events, ForkJoinPool.commonPool());
+    }
+
+    public static List<MessageRate> messageRates(EventColumns events, ForkJoinPool pool) {
+        if (events.size() == 0) return List.of();
+        long[] counts = pool.invoke(new CountTask(events, 0, events.size()));
+        long span = events.spanMillis();
+        List<MessageRate> rates = new ArrayList<>();
+        for (int id = 0; id < counts.length; id++) {
+            if (counts[id] == 0) continue;
+            double perSecond = span > 0 ? counts[id] * 1000.0 / span : 0;
+            rates.add(new MessageRate(events.message(id), counts[id], perSecond));
+        }
+        rates.sort(Comparator.comparingLong(MessageRate::getCount).reversed());
+        return rates;
+    }
+
+    /**
+     * Перцентиль интервалов в скользящих окнах длиной windowMillis с шагом stepMillis:
+     * окно k — события с timestamp в (start + k·step, start + k·step + window], start — момент первого события.
+     * Окна независимы и считаются параллельно.
+     * @return значение для каждого окна (0, если в окне меньше двух событий)
+     */
+    public static long[] windowedIntervalPercentile(EventColumns events, long windowMillis, long stepMillis,
+                                                    double percentile) {
+        if (windowMillis <= 0 || stepMillis <= 0) {
+            throw new IllegalArgumentException("window and step must be > 0: " + windowMillis + ", " + stepMillis);
+        }
+        if (events.size() < 2) return new long[0];
+        long start = events.timestampAt(0) - 1; // первое событие попадает в первое окно
+        long windows = Math.max(1, (events.spanMillis() + stepMillis - 1) / stepMillis);
+        return IntStream.range(0, (int) Math.min(windows, Integer.MAX_VALUE - 8))
+                .parallel()
+                .mapToLong(k -> {
+                    long from = start + k * stepMillis;
+                    int lo = upperBound(events, from);
+                    int hi = upperBound(events, from + windowMillis);
+                    return windowPercentile(events, lo, hi, percentile);
+                })
+                .toArray();
+    }
+
+    // перцентиль интервалов между событиями [lo, hi)
+    private static long windowPercentile(EventColumns events, int lo, int hi, double percentile) {
+        int n = hi - lo - 1;
+        if (n < 1) return 0;
+        long[] intervals = new long[n];
+        for (int i = 0; i < n; i++) {
+            intervals[i] = Math.max(0, events.timestampAt(lo + i + 1) - events.timestampAt(lo + i));
+        }
+        Arrays.sort(intervals);
+        return intervals[rank(percentile, n)];
+    }
+
+    // первая позиция с timestamp > ts
+    private static int upperBound(EventColumns events, long ts) {
+        int lo = 0;
+        int hi = events.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (events.timestampAt(mid) <= ts) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int rank(double percentile, int n) {
+        long r = (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100.0 * n);
+        return (int) Math.max(0, Math.min(n - 1, r - 1));
+    }
+
+    /** Интервалы для позиций [lo, hi): timestamp[i] - timestamp[i - 1]. */
+    private static final class IntervalTask extends RecursiveTask<LagHistogram> {
+        private final EventColumns events;
+        private final int lo;
+        private final int hi;
+
+        IntervalTask(EventColumns events, int lo, int hi) {
+            this.events = events;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected LagHistogram compute() {
+            if (hi - lo <= LEAF_SIZE) {
+                LagHistogram h = new LagHistogram();
+                long prev = events.timestampAt(lo - 1);
+                for (int i = lo; i < hi; i++) {
+                    long ts = events.timestampAt(i);
+                    h.record(ts - prev);
+                    prev = ts;
+                }
+                return h;
+            }
+            int mid = (lo + hi) >>> 1;
+            IntervalTask left = new IntervalTask(events, lo, mid);
+            left.fork();
+            LagHistogram right = new IntervalTask(events, mid, hi).compute();
+            LagHistogram result = left.join();
+            result.merge(right);
+            return result;
+        }
+    }
+
+    /** Счётчики по id сообщения для позиций [lo, hi). */
+    private static final class CountTask extends RecursiveTask<long[]> {
+        private final EventColumns events;
+        private final int lo;
+        private final int hi;
+
+        CountTask(EventColumns events, int lo, int hi) {
+            this.events = events;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (hi - lo <= LEAF_SIZE) {
+                long[] counts = new long[events.messageIdBound()];
+                for (int i = lo; i < hi; i++) counts[events.messageIdAt(i)]++;
+                return counts;
+            }
+            int mid = (lo + hi) >>> 1;
+            CountTask left = new CountTask(events, lo, mid);
+            left.fork();
+            long[] right = new CountTask(events, mid, hi).compute();
+            long[] result = left.join();
+            for (int i = 0; i < result.length; i++) result[i] += right[i];
+            return result;
+        }
+    }
+}
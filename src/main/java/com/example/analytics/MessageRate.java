@@ -0,0 +1,33 @@
+package com.example.analytics;
+
+/** Сколько раз сообщение встретилось в истории и с какой средней частотой. */
+public final class MessageRate {
+
+    private final String message;
+    private final long count;
+    private final double perSecond;
+
+    public MessageRate(String message, long count, double perSecond) {
+        this.message = message;
+        this.count = count;
+        this.perSecond = perSecond;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /** Событий в секунду за время от первого до последнего события снимка. */
+    public double getPerSecond() {
+        return perSecond;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d (%.2f/s)", message, count, perSecond);
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.analytics;
+
+import com.example.listener.EventListListener;
+import com.example.metrics.LagHistogram;
+import com.example.model.ClockEvent;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Живая статистика за последние windowMillis: число событий и частота, частоты сообщений,
+ * перцентили интервалов. Подключается как слушатель списка событий (model.addEventListener)
+ * и обновляется инкрементально: новое событие добавляется в кольцо, вышедшие из окна вычитаются,
+ * поэтому стоимость не зависит от длины истории.
+ *
+ * Окно считается по моментам прихода событий и сдвигается новыми событиями или expire(now);
+ * вытеснение из истории модели (onEventRemoved) на окно не влияет. Серия сжатых повторов — одно событие.
+ * Интервалы — в корзинах LagHistogram (погрешность до 12.5%).
+ */
+public final class SlidingWindowStats implements EventListListener {
+
+    private final long windowMillis;
+
+    // окно — кольцо: момент события, интервал до предыдущего (-1 — не было) и сообщение; guarded by this
+    private long[] times = new long[64];
+    private long[] intervals = new long[64];
+    private String[] messages = new String[64];
+    private int head;
+    private int size;
+    private long lastTimestamp = Long.MIN_VALUE;
+    private final long[] intervalBuckets = new long[LagHistogram.BUCKET_COUNT];
+    private long intervalCount;
+    private final Map<String, long[]> messageCounts = new HashMap<>();
+
+    public SlidingWindowStats(long windowMillis) {
+        if (windowMillis <= 0) throw new IllegalArgumentException("windowMillis must be > 0, got " + windowMillis);
+        this.windowMillis = windowMillis;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    @Override
+    public synchronized void onEventAdded(ClockEvent e) {
+        add(e);
+    }
+
+    @Override
+    public synchronized void onEventsAdded(List<ClockEvent> events) {
+        for (ClockEvent e : events) add(e);
+    }
+
+    @Override
+    public void onEventRemoved(ClockEvent e) {
+        // окно — по времени прихода, не по содержимому истории модели
+    }
+
+    @Override
+    public void onEventsRemoved(List<ClockEvent> events) {
+    }
+
+    /** Сдвинуть окно к nowMillis без новых событий (например, по таймеру перед показом). */
+    public synchronized void expire(long nowMillis) {
+        long cutoff = nowMillis - windowMillis;
+        while (size > 0 && times[head] <= cutoff) evictOldest();
+    }
+
+    public synchronized int getCount() {
+        return size;
+    }
+
+    /** Событий в секунду в среднем за окно. */
+    public synchronized double getPerSecond() {
+        return size * 1000.0 / windowMillis;
+    }
+
+    /** Событий с этим сообщением в окне. */
+    public synchronized long getMessageCount(String message) {
+        long[] c = messageCounts.get(message);
+        return c == null ? 0 : c[0];
+    }
+
+    /** Снимок счётчиков сообщений в окне. */
+    public synchronized Map<String, Long> getMessageCounts() {
+        Map<String, Long> copy = new HashMap<>();
+        for (Map.Entry<String, long[]> e : messageCounts.entrySet()) copy.put(e.getKey(), e.getValue()[0]);
+        return copy;
+    }
+
+    /**
+     * @param percentile от 0 до 100
+     * @return верхняя граница корзины перцентиля интервалов в окне, мс (0, если интервалов нет)
+     */
+    public synchronized long getIntervalPercentile(double percentile) {
+        if (intervalCount == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100.0 * intervalCount));
+        long seen = 0;
+        for (int i = 0; i < intervalBuckets.length; i++) {
+            seen += intervalBuckets[i];
+            if (seen >= rank) return LagHistogram.upperBound(i);
+        }
+        return 0;
+    }
+
+    // guarded by this
+    private void add(ClockEvent e) {
+        long ts = e.getTimestampMillis();
+        long interval = lastTimestamp == Long.MIN_VALUE ? -1 : Math.max(0, ts - lastTimestamp);
+        lastTimestamp = Math.max(lastTimestamp, ts);
+        if (size == times.length) grow();
+        int p = (head + size) % times.length;
+        times[p] = ts;
+        intervals[p] = interval;
+        messages[p] = e.getMessage();
+        size++;
+        if (interval >= 0) {
+            intervalBuckets[LagHistogram.indexOf(interval)]++;
+            intervalCount++;
+        }
+        messageCounts.computeIfAbsent(e.getMessage(), m -> new long[1])[0]++;
+        long cutoff = lastTimestamp - windowMillis;
+        while (size > 0 && times[head] <= cutoff) evictOldest();
+    }
+
+    // guarded by this
+    private void evictOldest() {
+        long interval = intervals[head];
+        if (interval >= 0) {
+            intervalBuckets[LagHistogram.indexOf(interval)]--;
+            intervalCount--;
+        }
+        String message = messages[head];
+        long[] c = messageCounts.get(message);
+        if (--c[0] == 0) messageCounts.remove(message);
+        messages[head] = null;
+        head = (head + 1) % times.length;
+        size--;
+    }
+
+    // guarded by this
+    private void grow() {
+        int n = times.length * 2;
+        long[] t = new long[n];
+        long[] iv = new long[n];
+        String[] m = new String[n];
+        for (int i = 0; i < size; i++) {
+            int p = (head + i) % times.length;
+            t[i] = times[p];
+            iv[i] = intervals[p];
+            m[i] = messages[p];
+        }
+        times = t;
+        intervals = iv;
+        messages = m;
+        head = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("window=%dms count=%d rate=%.2f/s p50=%dms p99=%dms", windowMillis, size,
+                getPerSecond(), getIntervalPercentile(50), getIntervalPercentile(99));
+    }
+}
@@ -1,19 +1,34 @@
 package com.example.app;
 
 import com.example.controller.ClockController;
+import com.example.controller.TickMode;
 import com.example.factory.TimeStrategyFactory;
 import com.example.model.*;
+import com.example.net.ClockBroadcastServer;
 import com.example.view.ClockPanel;
 import com.example.view.LogWindow;
+import com.example.view.WorldClockPanel;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class MainViewController {
 
+    private static final String DEFAULT_WORLD_ZONES = "UTC,Europe/London,Europe/Berlin,Europe/Moscow,Asia/Dubai,"
+            + "Asia/Kolkata,Asia/Shanghai,Asia/Tokyo,Australia/Sydney,Pacific/Auckland,"
+            + "America/Sao_Paulo,America/New_York,America/Chicago,America/Denver,America/Los_Angeles,Pacific/Honolulu";
+
     private final TimeStrategyFactory strategyFactory;
+    private final boolean lazyStartup;
 
     private TimeStrategy systemTime;
     private TimeStrategy stopwatch;
@@ -21,12 +36,27 @@ public class MainViewController {
     private ClockModel model;
     private ClockController controller;
     private ClockPanel clockPanel;
-    private LogWindow logWindow;
+    private volatile LogWindow logWindow;
+    // ленивый старт: строки до появления окна лога
+    private final Queue<String> earlyLog = new ConcurrentLinkedQueue<>();
+    private ClockBroadcastServer broadcastServer;
+    private JFrame worldFrame;
 
     private JFrame frame;
 
     public MainViewController(TimeStrategyFactory strategyFactory) {
+        this(strategyFactory, false);
+    }
+
+    /**
+     * @param lazyStartup быстрый старт: до первого кадра строится только окно с часами;
+     *                    окно лога, тикер и регистрация в JMX — сразу после первой отрисовки
+     *                    (окно лога не откладывается дальше: тикер пишет в лог на каждом тике),
+     *                    секундомер — при первом переключении
+     */
+    public MainViewController(TimeStrategyFactory strategyFactory, boolean lazyStartup) {
         this.strategyFactory = strategyFactory;
+        this.lazyStartup = lazyStartup;
     }
 
     public void start() {
@@ -36,13 +66,14 @@ public class MainViewController {
     private void initUI() {
 
         systemTime = strategyFactory.createSystemTime();
-        stopwatch  = strategyFactory.createStopwatch();
+        if (!lazyStartup) stopwatch = strategyFactory.createStopwatch();
 
         model = new ClockModel(systemTime, 20);
+        if (!lazyStartup) model.getMetrics().registerMBean("main");
 
         clockPanel = new ClockPanel();
-        logWindow = new LogWindow();
-        clockPanel.setLogWindow(logWindow);
+        if (!lazyStartup) logWindow = new LogWindow();
+        clockPanel.setLog(this::log);
 
         model.addEventListener(clockPanel);
         model.addUiListener(clockPanel);
@@ -50,7 +81,7 @@ public class MainViewController {
         controller = new ClockController(model, 200, true);
 
         controller.addDataListener((ts, msg) ->
-                logWindow.log("[As DataListener] Tick: " + msg + " @ " + ts));
+                log("[As DataListener] Tick: " + msg + " @ " + ts));
 
         frame = new JFrame("MyClock");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -59,16 +90,126 @@ public class MainViewController {
         frame.add(createControlPanel(), BorderLayout.SOUTH);
         frame.pack();
         frame.setLocationRelativeTo(null);
+        clockPanel.runAfterFirstPaint(this::afterFirstFrame);
         frame.setVisible(true);
 
         frame.addWindowListener(new WindowAdapter() {
             @Override
             public void windowClosing(WindowEvent e) {
                 controller.shutdown();
+                if (broadcastServer != null) broadcastServer.close();
+                model.getMetrics().unregisterMBean();
+            }
+        });
+
+        if (!lazyStartup) {
+            startBroadcast();
+            controller.start();
+        }
+    }
+
+    // EDT, следующей задачей после первой отрисовки часов
+    private void afterFirstFrame() {
+        StartupTimer.firstFrame();
+        System.out.println(StartupTimer.report() + (lazyStartup ? " (lazy)" : " (eager)"));
+        if (lazyStartup) {
+            openLogWindow();
+            controller.start();
+            model.getMetrics().registerMBean("main");
+            startBroadcast();
+        }
+        // -Dclock.startup.exit=true — выйти сразу после замера (скрипты замера, сбор списка классов для AppCDS)
+        if (Boolean.getBoolean("clock.startup.exit")) {
+            SwingUtilities.invokeLater(() -> {
+                controller.shutdown();
+                System.exit(0);
+            });
+        }
+    }
+
+    // строки лога из любого потока; в ленивом режиме до первого кадра копятся в earlyLog
+    private void log(String line) {
+        LogWindow w = logWindow;
+        if (w != null) {
+            w.log(line);
+            return;
+        }
+        earlyLog.add(line);
+        w = logWindow;
+        if (w != null) drainEarlyLog(w); // окно появилось между проверкой и add — строка не должна застрять
+    }
+
+    // EDT, после первого кадра ленивого старта
+    private void openLogWindow() {
+        LogWindow w = new LogWindow();
+        logWindow = w;
+        drainEarlyLog(w);
+    }
+
+    private void drainEarlyLog(LogWindow w) {
+        String line;
+        while ((line = earlyLog.poll()) != null) w.log(line);
+    }
+
+    // табло мирового времени — своя модель и тикер по границам секунд; строится при первом открытии
+    private void showWorldClock() {
+        if (worldFrame != null) {
+            worldFrame.toFront();
+            return;
+        }
+        WorldClockStrategy world = strategyFactory.createWorldClock(worldZones());
+        ClockModel worldModel = new ClockModel(world, 1);
+        WorldClockPanel panel = new WorldClockPanel(world);
+        worldModel.addUiListener(panel);
+        ClockController worldController = new ClockController(worldModel, 1000, false, TickMode.WALL_ALIGNED);
+
+        JFrame f = new JFrame(world.getModeLabel());
+        f.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        f.add(new JScrollPane(panel), BorderLayout.CENTER);
+        f.pack();
+        f.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                worldController.shutdown();
+                worldFrame = null;
             }
         });
+        worldFrame = f;
+        f.setVisible(true);
+        worldController.start();
+    }
+
+    // -Dclock.world.zones=Europe/Paris,Asia/Tokyo,... — зоны табло; неизвестные пропускаются
+    private static List<ZoneId> worldZones() {
+        List<ZoneId> zones = new ArrayList<>();
+        for (String id : System.getProperty("clock.world.zones", DEFAULT_WORLD_ZONES).split(",")) {
+            try {
+                if (!id.isBlank()) zones.add(ZoneId.of(id.trim()));
+            } catch (RuntimeException ex) {
+                ex.printStackTrace();
+            }
+        }
+        return zones;
+    }
 
-        controller.start();
+    private TimeStrategy stopwatch() {
+        if (stopwatch == null) stopwatch = strategyFactory.createStopwatch();
+        return stopwatch;
+    }
+
+    // -Dclock.broadcast.port=N — раздавать время и события дашбордам по TCP (только loopback, если не задан host)
+    private void startBroadcast() {
+        Integer port = Integer.getInteger("clock.broadcast.port");
+        if (port == null) return;
+        String host = System.getProperty("clock.broadcast.host", "127.0.0.1");
+        try {
+            broadcastServer = new ClockBroadcastServer(model, new InetSocketAddress(host, port));
+            broadcastServer.start();
+            log("Broadcast on " + broadcastServer.getLocalAddress());
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            broadcastServer = null;
+        }
     }
 
     private JPanel createControlPanel() {
@@ -79,6 +220,7 @@ public class MainViewController {
         JButton resetBtn = new JButton("⟲ Сброс");
         JButton toggleTicks = new JButton("Тики: вкл");
         JButton modeBtn = new JButton("Режим: Часы");
+        JButton worldBtn = new JButton("Мир");
 
         startBtn.addActionListener(e -> {
             controller.strategyStart();
@@ -104,7 +246,7 @@ public class MainViewController {
         modeBtn.addActionListener(e -> {
             TimeStrategy current = model.getStrategy();
             if (current instanceof SystemTimeStrategy) {
-                controller.setStrategy(stopwatch, true);
+                controller.setStrategy(stopwatch(), true);
                 modeBtn.setText("Режим: Секундомер");
             } else {
                 controller.setStrategy(systemTime, false);
@@ -112,11 +254,14 @@ public class MainViewController {
             }
         });
 
+        worldBtn.addActionListener(e -> showWorldClock());
+
         panel.add(startBtn);
         panel.add(stopBtn);
         panel.add(resetBtn);
         panel.add(toggleTicks);
         panel.add(modeBtn);
+        panel.add(worldBtn);
 
         return panel;
     }
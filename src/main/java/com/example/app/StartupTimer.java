@@ -0,0 +1,44 @@
+package com.example.app;
+
+/**
+ * Замер холодного старта: время до первого отрисованного кадра.
+ * Отсчёт от входа в main — mark() первой строкой main; от старта процесса — по ProcessHandle.
+ */
+public final class StartupTimer {
+
+    private static final long MAIN_NANOS = System.nanoTime();
+    private static volatile long firstFrameNanos;
+
+    private StartupTimer() {
+    }
+
+    /** Зафиксировать вход в main: сама загрузка класса запоминает момент. */
+    public static void mark() {
+    }
+
+    /** Отметить первый кадр; повторные вызовы игнорируются. */
+    static void firstFrame() {
+        if (firstFrameNanos == 0) firstFrameNanos = System.nanoTime();
+    }
+
+    /** От main до первого кадра, мс; -1, пока кадра не было. */
+    public static long getMainToFirstFrameMillis() {
+        long f = firstFrameNanos;
+        return f == 0 ? -1 : (f - MAIN_NANOS) / 1_000_000;
+    }
+
+    /** От старта процесса JVM до первого кадра, мс; -1, если неизвестно. */
+    public static long getProcessToFirstFrameMillis() {
+        long f = firstFrameNanos;
+        if (f == 0) return -1;
+        long frameWallMillis = System.currentTimeMillis() - (System.nanoTime() - f) / 1_000_000;
+        return ProcessHandle.current().info().startInstant()
+                .map(start -> frameWallMillis - start.toEpochMilli())
+                .orElse(-1L);
+    }
+
+    public static String report() {
+        return "Time to first frame: " + getMainToFirstFrameMillis() + " ms from main, "
+                + getProcessToFirstFrameMillis() + " ms from process start";
+    }
+}
@@ -1,11 +1,14 @@
 package com.example.controller;
 
 import com.example.listener.DataListener;
+import com.example.metrics.LagHistogram;
+import com.example.metrics.TickEvent;
 import com.example.model.ClockModel;
 import com.example.model.TimeStrategy;
-import com.example.view.ClockPanel;
-import javax.swing.*;
-import java.util.concurrent.*;
+import com.example.scheduler.ExecutorTickScheduler;
+import com.example.scheduler.TickScheduler;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Контроллер - управляет периодическим опросом модели (через strategy),
@@ -16,55 +19,157 @@ import java.util.concurrent.*;
 public class ClockController {
 
     private final ClockModel model;
-    private final ScheduledExecutorService scheduler;
-    private ScheduledFuture<?> task;
+    private final TickScheduler scheduler;
+    private final boolean ownsScheduler;
+    private TickScheduler.Handle task; // guarded by this
+    private boolean running;          // guarded by this
+    private long generation;         // guarded by this; меняется на каждый start/stop
     private final long periodMillis;
+    private final TickMode tickMode;
     private volatile boolean emitTicks;
 
+    private final AtomicLong skippedTicks = new AtomicLong();
+
     public ClockController(ClockModel model, long periodMillis, boolean emitTicks) {
+        this(model, periodMillis, emitTicks, TickMode.FIXED_RATE);
+    }
+
+    public ClockController(ClockModel model, long periodMillis, boolean emitTicks, TickMode tickMode) {
+        this(model, periodMillis, emitTicks, tickMode, new ExecutorTickScheduler("clock-ticker"), true);
+    }
+
+    /**
+     * Контроллер на общем планировщике (например, TimingWheelScheduler на тысячи часов).
+     * Чужой планировщик контроллер не останавливает — shutdown() только снимает свои тики.
+     */
+    public ClockController(ClockModel model, long periodMillis, boolean emitTicks, TickMode tickMode,
+                           TickScheduler scheduler) {
+        this(model, periodMillis, emitTicks, tickMode, scheduler, false);
+    }
+
+    private ClockController(ClockModel model, long periodMillis, boolean emitTicks, TickMode tickMode,
+                            TickScheduler scheduler, boolean ownsScheduler) {
         this.model = model;
         this.periodMillis = Math.max(10, periodMillis);
         this.emitTicks = emitTicks;
-        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "clock-ticker");
-            t.setDaemon(true);
-            return t;
-        });
+        this.tickMode = tickMode;
+        this.scheduler = scheduler;
+        this.ownsScheduler = ownsScheduler;
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        long gen = ++generation;
+        if (tickMode == TickMode.WALL_ALIGNED) {
+            scheduleAligned(gen, Long.MIN_VALUE);
+        } else {
+            scheduleFixed(gen, scheduler.nanoTime(), 0);
+        }
+    }
+
+    // lagNanos — насколько тик стартовал позже запланированного момента
+    private void tick(long lagNanos) {
+        TickEvent event = new TickEvent();
+        event.begin();
+        long start = scheduler.nanoTime();
+        boolean emitted = emitTicks;
+
+        model.updateTimeFromStrategy(); // модель уведомит UI
+        if (emitted) {
+            model.recordEvent("Tick");
+        }
+
+        model.getMetrics().recordTick(lagNanos, scheduler.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.lag = lagNanos;
+            event.emitted = emitted;
+            event.commit();
+        }
+    }
+
+    // fixed rate поверх однократных задач: run-й тик должен стартовать в startNano + run * period,
+    // отставшие тики выполняются подряд, как у scheduleAtFixedRate
+    private synchronized void scheduleFixed(long gen, long startNano, long run) {
+        if (gen != generation) return; // тикер остановлен или перезапущен
+        long dueNano = startNano + run * TimeUnit.MILLISECONDS.toNanos(periodMillis);
+        long delay = Math.max(0, dueNano - scheduler.nanoTime());
+        task = scheduler.schedule(() -> runFixed(gen, startNano, run, dueNano), delay, TimeUnit.NANOSECONDS);
+    }
+
+    private void runFixed(long gen, long startNano, long run, long dueNano) {
+        tick(scheduler.nanoTime() - dueNano);
+        scheduleFixed(gen, startNano, run + 1);
+    }
+
+    // следующий тик — на ближайшей границе периода по настенным часам, но строго после lastBoundary:
+    // планировщик ждёт по nanoTime и может проснуться чуть раньше настенной границы — тогда от "сейчас"
+    // снова вышла бы та же граница и тик повторился бы через миллисекунду
+    private synchronized void scheduleAligned(long gen, long lastBoundary) {
+        if (gen != generation) return; // тикер остановлен или перезапущен
+        long now = scheduler.currentTimeMillis();
+        long boundary = (Math.floorDiv(now, periodMillis) + 1) * periodMillis;
+        if (lastBoundary != Long.MIN_VALUE) {
+            boundary = Math.max(lastBoundary + periodMillis, boundary);
+            // границы, прошедшие пока тик опаздывал или выполнялся, не догоняем
+            long missed = (boundary - lastBoundary) / periodMillis - 1;
+            if (missed > 0) skippedTicks.addAndGet(missed);
+        }
+        long delay = Math.max(0, boundary - now);
+        long due = boundary;
+        long dueNano = scheduler.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+        task = scheduler.schedule(() -> runAligned(gen, due, dueNano), delay, TimeUnit.MILLISECONDS);
     }
 
-    public void start() {
-        if (task != null && !task.isCancelled() && !task.isDone()) return;
-        task = scheduler.scheduleAtFixedRate(() -> {
-            long t = model.updateTimeFromStrategy(); // модель уведомит UI
-            if (emitTicks) {
-                model.addEvent("Tick");
-            }
-        }, 0, periodMillis, TimeUnit.MILLISECONDS);
+    private void runAligned(long gen, long boundary, long dueNano) {
+        tick(scheduler.nanoTime() - dueNano);
+        scheduleAligned(gen, boundary);
     }
 
-    public void stop() {
+    public synchronized void stop() {
+        running = false;
+        generation++;
         if (task != null) {
-            task.cancel(false);
+            task.cancel();
             task = null;
         }
     }
 
+    /**
+     * Задержка запуска тиков относительно расписания (нс) — для подбора periodMillis по реальным данным.
+     * Это гистограмма из метрик модели (ClockMetrics.getTickLag), она же видна через JMX.
+     */
+    public LagHistogram getLagHistogram() {
+        return model.getMetrics().getTickLag();
+    }
+
+    /** Сколько тиков пропущено в режиме WALL_ALIGNED из-за опоздания. */
+    public long getSkippedTicks() {
+        return skippedTicks.get();
+    }
+
+    public TickMode getTickMode() {
+        return tickMode;
+    }
+
     public void shutdown() {
         stop();
-        scheduler.shutdownNow();
+        if (ownsScheduler) scheduler.shutdown();
     }
 
     public void setEmitTicks(boolean emitTicks) {
         this.emitTicks = emitTicks;
     }
 
-    // переключение стратегии: останавливаем тикер, переключаем, опционально стартуем стратегию, возобновляем тикер
+    /**
+     * Переключение стратегии без остановки тикера: модель меняет стратегию одной записью,
+     * следующий тик по тому же расписанию уже идёт от новой — без пропусков и двойных тиков.
+     * Новая стратегия стартует до переключения, чтобы первый же её тик показывал идущее время.
+     */
     public void setStrategy(TimeStrategy newStrategy, boolean startStrategy) {
-        stop();
-        model.setStrategy(newStrategy);
         if (startStrategy) newStrategy.start();
-        // в модели при смене стратегии уже отправлены notifications
-        start();
+        model.setStrategy(newStrategy); // модель сама уведомит UI о смене режима
     }
 
     // пользовательские команды к стратегии (start/stop/reset) делаем через модель.getStrategy()
@@ -0,0 +1,18 @@
+package com.example.controller;
+
+/**
+ * Как тикер планирует тики.
+ */
+public enum TickMode {
+    /**
+     * Фиксированный темп с произвольной фазой: каждый тик — однократная задача на момент start + n·period
+     * (по nanoTime), поэтому расписание не дрейфует; после паузы (GC, сон) пропущенные тики догоняются пачкой,
+     * как у scheduleAtFixedRate.
+     */
+    FIXED_RATE,
+    /**
+     * Тики на границах периода по настенным часам (для 1000 мс — ровно на смене секунды);
+     * пропущенные границы не догоняются, а пропускаются.
+     */
+    WALL_ALIGNED
+}
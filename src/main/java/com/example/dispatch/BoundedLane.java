@@ -0,0 +1,128 @@
+package com.example.dispatch;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+
+/**
+ * Ограниченная последовательная очередь одного слушателя на своём executor-е.
+ * Элементы обрабатываются по одному и по порядку; переполнение решается политикой,
+ * поэтому медленный потребитель тормозит только себя (кроме BLOCK — там это осознанный выбор).
+ */
+public final class BoundedLane<T> {
+
+    private final Executor executor;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final BinaryOperator<T> coalescer;
+    private final Consumer<T> consumer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final ArrayDeque<T> queue = new ArrayDeque<>(); // guarded by lock
+    private boolean scheduled;                              // guarded by lock
+    private boolean closed;                                 // guarded by lock
+    private final LongAdder dropped = new LongAdder();
+    private final Runnable drainTask = this::drain;
+
+    /**
+     * @param coalescer для COALESCE_LATEST: (последний в очереди, новый) -> что оставить вместо последнего
+     */
+    public BoundedLane(Executor executor, int capacity, OverflowPolicy policy,
+                       BinaryOperator<T> coalescer, Consumer<T> consumer) {
+        this.executor = executor;
+        this.capacity = Math.max(1, capacity);
+        this.policy = policy;
+        this.coalescer = coalescer;
+        this.consumer = consumer;
+    }
+
+    public void offer(T item) {
+        boolean schedule;
+        lock.lock();
+        try {
+            if (closed) return;
+            if (queue.size() >= capacity) {
+                switch (policy) {
+                    case BLOCK:
+                        while (queue.size() >= capacity && !closed) notFull.awaitUninterruptibly();
+                        if (closed) return;
+                        queue.addLast(item);
+                        break;
+                    case DROP_OLDEST:
+                        queue.pollFirst();
+                        queue.addLast(item);
+                        dropped.increment();
+                        break;
+                    case DROP_NEWEST:
+                        dropped.increment();
+                        return;
+                    case COALESCE_LATEST:
+                        queue.addLast(coalescer.apply(queue.pollLast(), item));
+                        dropped.increment();
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown policy " + policy);
+                }
+            } else {
+                queue.addLast(item);
+            }
+            schedule = !scheduled;
+            scheduled = true;
+        } finally {
+            lock.unlock();
+        }
+        if (schedule) executor.execute(drainTask);
+    }
+
+    private void drain() {
+        for (;;) {
+            T item;
+            lock.lock();
+            try {
+                item = queue.pollFirst();
+                if (item == null) {
+                    scheduled = false;
+                    return;
+                }
+                notFull.signal();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                consumer.accept(item);
+            } catch (Throwable ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    /** Сколько элементов выброшено или слито по политике переполнения. */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Больше не принимать элементы; уже поставленные в очередь будут обработаны. */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.dispatch;
+
+/**
+ * Куда и как модель доставляет уведомления слушателям.
+ *
+ * execute — задача модели (разбор очереди дельт, смена режима); модель сама гарантирует,
+ * что разбор очереди не выполняется параллельно. deliver — вызов конкретного слушателя
+ * из задачи модели; по умолчанию выполняется тут же, в потоке доставки.
+ */
+public interface Dispatcher {
+
+    void execute(Runnable task);
+
+    default void deliver(Object listener, Runnable callback) {
+        callback.run();
+    }
+
+    /** Освободить потоки диспетчера (если они есть). */
+    default void shutdown() {}
+}
@@ -0,0 +1,14 @@
+package com.example.dispatch;
+
+import javax.swing.*;
+
+/**
+ * Доставка в Swing EDT — режим по умолчанию для настольного приложения.
+ */
+public class EdtDispatcher implements Dispatcher {
+
+    @Override
+    public void execute(Runnable task) {
+        SwingUtilities.invokeLater(task);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.dispatch;
+
+/** Что делать, когда очередь асинхронного слушателя заполнена. */
+public enum OverflowPolicy {
+    /** Ждать места — тормозит поток доставки модели (для EdtDispatcher — EDT), терять нельзя ничего. */
+    BLOCK,
+    /** Выбросить самый старый элемент очереди. */
+    DROP_OLDEST,
+    /** Выбросить новый элемент. */
+    DROP_NEWEST,
+    /** Слить новый элемент с последним в очереди (как именно — решает слушатель). */
+    COALESCE_LATEST
+}
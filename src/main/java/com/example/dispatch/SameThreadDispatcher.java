@@ -0,0 +1,14 @@
+package com.example.dispatch;
+
+/**
+ * Доставка прямо в потоке, который изменил модель (тикер или поток приложения).
+ * Самый дешёвый вариант для headless-сервисов и бенчмарков; слушатели должны быть быстрыми
+ * и потокобезопасными.
+ */
+public class SameThreadDispatcher implements Dispatcher {
+
+    @Override
+    public void execute(Runnable task) {
+        task.run();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.dispatch;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Доставка в одном выделенном потоке — аналог EDT без AWT.
+ */
+public class SingleThreadDispatcher implements Dispatcher {
+
+    private final ExecutorService executor;
+
+    public SingleThreadDispatcher(String threadName) {
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, threadName);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.dispatch;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.WeakHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Каждый слушатель получает свою последовательную "полосу" на виртуальных потоках:
+ * медленный слушатель не задерживает остальных, а порядок вызовов одного слушателя сохраняется.
+ * Полосы держатся по слабой ссылке на слушателя.
+ */
+public class VirtualThreadPerListenerDispatcher implements Dispatcher {
+
+    private final Map<Object, Lane> lanes = Collections.synchronizedMap(new WeakHashMap<>());
+    private final ThreadFactory threads;
+
+    public VirtualThreadPerListenerDispatcher() {
+        this("clock-listener");
+    }
+
+    public VirtualThreadPerListenerDispatcher(String namePrefix) {
+        this.threads = Thread.ofVirtual().name(namePrefix + "-", 0).factory();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        threads.newThread(task).start();
+    }
+
+    @Override
+    public void deliver(Object listener, Runnable callback) {
+        lanes.computeIfAbsent(listener, k -> new Lane()).submit(callback);
+    }
+
+    private final class Lane implements Runnable {
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        void submit(Runnable callback) {
+            queue.add(callback);
+            if (wip.getAndIncrement() == 0) threads.newThread(this).start();
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                Runnable r;
+                while ((r = queue.poll()) != null) {
+                    try { r.run(); } catch (Throwable ex) { ex.printStackTrace(); }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
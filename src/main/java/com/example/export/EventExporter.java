@@ -0,0 +1,210 @@
+package com.example.export;
+
+import com.example.model.ClockModel;
+import com.example.model.EventRingBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Потоковый экспорт истории событий модели в WritableByteChannel (файл, сокет, pipe).
+ *
+ * Один экспортёр — один поток данных: события кодируются прямо из кольцевого буфера модели
+ * в переиспользуемый direct ByteBuffer, без строк на событие и без List<ClockEvent>;
+ * байты сообщений кодируются один раз на id. export() можно вызывать повторно —
+ * каждый вызов дописывает события, появившиеся с прошлого раза.
+ *
+ * Формат BINARY (varint — по 7 бит на байт, младшие первыми):
+ *   заголовок  'C' 'L' 'K' 'E' версия(1 байт)
+ *   'M' id(varint) длина(varint) UTF-8 байты  — текст сообщения, один раз на id до первого использования
+ *   'E' Δseq(varint) Δts(zigzag varint) id(varint) — событие; дельты от предыдущего события потока
+ * Обычный тик занимает 5-6 байт.
+ *
+ * Канал должен быть в блокирующем режиме. Экспортёр не потокобезопасен.
+ */
+public final class EventExporter {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final byte[] BINARY_MAGIC = {'C', 'L', 'K', 'E', 1};
+    private static final byte[] CSV_HEADER = "seq,timestamp,message\n".getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_EVENT_BYTES = 48; // 'E' и три varint либо два числа CSV с разделителями
+
+    private final WritableByteChannel channel;
+    private final ExportFormat format;
+    private final ByteBuffer buffer;
+    private final byte[] digits = new byte[20];
+    private final EventRingBuffer.EntryVisitor encoder = this::encode;
+
+    private ClockModel model;       // на время export()
+    private byte[][] messageBytes = new byte[16][]; // по id: CSV — экранированное поле, BINARY — UTF-8
+    private boolean headerWritten;
+    private long nextSeq;
+    private long prevSeq;
+    private long prevTs;
+    private long exported;
+
+    public EventExporter(WritableByteChannel channel, ExportFormat format) {
+        this(channel, format, DEFAULT_BUFFER_SIZE);
+    }
+
+    public EventExporter(WritableByteChannel channel, ExportFormat format, int bufferSize) {
+        this.channel = channel;
+        this.format = format;
+        this.buffer = ByteBuffer.allocateDirect(Math.max(256, bufferSize));
+    }
+
+    /** Дописать события, появившиеся после прошлого вызова (в первый раз — всю живую историю). */
+    public long export(ClockModel model) throws IOException {
+        return export(model, nextSeq);
+    }
+
+    /**
+     * Дописать живые события с номерами от fromSeq. События, уже вытесненные из истории, пропускаются.
+     * @return номер, с которого продолжит следующий export(model)
+     */
+    public long export(ClockModel model, long fromSeq) throws IOException {
+        this.model = model;
+        try {
+            if (!headerWritten) {
+                putBytes(format == ExportFormat.CSV ? CSV_HEADER : BINARY_MAGIC);
+                headerWritten = true;
+            }
+            nextSeq = model.forEachEventFrom(fromSeq, encoder);
+            drain();
+            return nextSeq;
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        } finally {
+            this.model = null;
+        }
+    }
+
+    /** Сколько событий записано за всё время. */
+    public long getExportedCount() {
+        return exported;
+    }
+
+    // ---------------- кодирование ----------------
+
+    private void encode(long seq, long ts, int messageId) {
+        try {
+            if (format == ExportFormat.CSV) {
+                byte[] msg = message(messageId);
+                ensure(MAX_EVENT_BYTES);
+                putDecimal(seq);
+                buffer.put((byte) ',');
+                putDecimal(ts);
+                buffer.put((byte) ',');
+                putBytes(msg);
+                ensure(1);
+                buffer.put((byte) '\n');
+            } else {
+                // для BINARY кэш байтов заодно помечает id, текст которых уже записан в поток
+                if (messageId >= messageBytes.length || messageBytes[messageId] == null) {
+                    byte[] msg = message(messageId);
+                    ensure(1 + 5 + 5);
+                    buffer.put((byte) 'M');
+                    putVarint(messageId);
+                    putVarint(msg.length);
+                    putBytes(msg);
+                }
+                ensure(MAX_EVENT_BYTES);
+                buffer.put((byte) 'E');
+                putVarint(seq - prevSeq);
+                long dts = ts - prevTs;
+                putVarint((dts << 1) ^ (dts >> 63));
+                putVarint(messageId);
+            }
+            prevSeq = seq;
+            prevTs = ts;
+            exported++;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private byte[] message(int messageId) {
+        if (messageId >= messageBytes.length) {
+            messageBytes = Arrays.copyOf(messageBytes, Math.max(messageId + 1, messageBytes.length * 2));
+        }
+        byte[] b = messageBytes[messageId];
+        if (b == null) {
+            String text = model.getMessage(messageId);
+            b = (format == ExportFormat.CSV ? csvField(text) : text).getBytes(StandardCharsets.UTF_8);
+            messageBytes[messageId] = b;
+        }
+        return b;
+    }
+
+    private static String csvField(String text) {
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        return quote ? '"' + text.replace("\"", "\"\"") + '"' : text;
+    }
+
+    private void putDecimal(long v) {
+        if (v == Long.MIN_VALUE) {
+            putAscii(Long.toString(v));
+            return;
+        }
+        if (v < 0) {
+            buffer.put((byte) '-');
+            v = -v;
+        }
+        int pos = digits.length;
+        do {
+            digits[--pos] = (byte) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        buffer.put(digits, pos, digits.length - pos);
+    }
+
+    private void putAscii(String s) {
+        for (int i = 0; i < s.length(); i++) buffer.put((byte) s.charAt(i));
+    }
+
+    private void putVarint(long v) {
+        while ((v & ~0x7FL) != 0) {
+            buffer.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        buffer.put((byte) v);
+    }
+
+    private void putBytes(byte[] b) throws IOException {
+        if (b.length <= buffer.remaining()) {
+            buffer.put(b);
+            return;
+        }
+        drain();
+        if (b.length <= buffer.remaining()) {
+            buffer.put(b);
+        } else {
+            writeFully(ByteBuffer.wrap(b)); // длиннее буфера — отдаём каналу напрямую
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) drain();
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer b) throws IOException {
+        while (b.hasRemaining()) {
+            channel.write(b);
+        }
+    }
+}
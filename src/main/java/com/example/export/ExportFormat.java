@@ -0,0 +1,8 @@
+package com.example.export;
+
+public enum ExportFormat {
+    /** Текст: заголовок "seq,timestamp,message", затем строка на событие. */
+    CSV,
+    /** Компактный двоичный поток, см. EventExporter. */
+    BINARY
+}
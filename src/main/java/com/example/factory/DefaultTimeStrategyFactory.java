@@ -1,18 +1,35 @@
 package com.example.factory;
 
+import com.example.model.ClockSource;
 import com.example.model.StopwatchStrategy;
 import com.example.model.SystemTimeStrategy;
 import com.example.model.TimeStrategy;
 
 public class DefaultTimeStrategyFactory implements TimeStrategyFactory {
 
+    private final ClockSource clock;
+
+    public DefaultTimeStrategyFactory() {
+        this(ClockSource.system());
+    }
+
+    /** Стратегии на заданном источнике: CoarseClockSource для горячих читателей, VirtualClockSource для тестов. */
+    public DefaultTimeStrategyFactory(ClockSource clock) {
+        this.clock = clock;
+    }
+
     @Override
     public TimeStrategy createSystemTime() {
-        return new SystemTimeStrategy();
+        return new SystemTimeStrategy(clock);
     }
 
     @Override
     public TimeStrategy createStopwatch() {
-        return new StopwatchStrategy();
+        return new StopwatchStrategy(clock);
+    }
+
+    @Override
+    public ClockSource getClockSource() {
+        return clock;
     }
 }
@@ -1,8 +1,20 @@
 package com.example.factory;
 
+import com.example.model.ClockSource;
+import com.example.model.CountdownStrategy;
 import com.example.model.TimeStrategy;
+import com.example.model.WorldClockStrategy;
+
+import java.time.ZoneId;
+import java.util.List;
 
 public interface TimeStrategyFactory {
     TimeStrategy createSystemTime();
     TimeStrategy createStopwatch();
+    /** Мировое время по списку зон на источнике времени фабрики. */
+    default WorldClockStrategy createWorldClock(List<ZoneId> zones) { return new WorldClockStrategy(zones, getClockSource()); }
+    /** Обратный отсчёт на durationMillis на источнике времени фабрики. */
+    default CountdownStrategy createCountdown(long durationMillis) { return new CountdownStrategy(durationMillis, getClockSource()); }
+    /** Источник времени, на котором фабрика строит стратегии. */
+    default ClockSource getClockSource() { return ClockSource.system(); }
 }
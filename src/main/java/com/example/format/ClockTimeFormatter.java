@@ -0,0 +1,151 @@
+package com.example.format;
+
+import java.time.ZoneId;
+
+/**
+ * Форматирование времени "HH:mm:ss.SSS" без String.format и DateTimeFormatter:
+ * цифры пишутся прямо в char[] или StringBuilder.
+ *
+ * Для секундомера (прошедшее время) — статические методы formatElapsed, часы не ограничены 24.
+ * Для настенных часов — экземпляр на зону: часть "HH:mm:ss." кэшируется на текущую секунду
+ * (смещение зоны берётся из ZoneOffsetCache), на каждый вызов дописываются только миллисекунды.
+ * Для табло с многими зонами — статический formatTimeOfDay от уже сдвинутого местного времени.
+ */
+public final class ClockTimeFormatter {
+
+    /** Достаточный размер буфера для любого результата. */
+    public static final int MAX_LENGTH = 32;
+
+    private static final ThreadLocal<char[]> SCRATCH = ThreadLocal.withInitial(() -> new char[MAX_LENGTH]);
+
+    private final ZoneOffsetCache offsets;
+    private volatile SecondPrefix cached = new SecondPrefix(Long.MIN_VALUE, new char[0]);
+
+    private ClockTimeFormatter(ZoneId zone) {
+        this.offsets = ZoneOffsetCache.of(zone);
+    }
+
+    public static ClockTimeFormatter forZone(ZoneId zone) {
+        return new ClockTimeFormatter(zone);
+    }
+
+    // ---------------- настенные часы ----------------
+
+    /** @return позиция сразу после записанных символов */
+    public int formatWallClock(long epochMillis, char[] dst, int off) {
+        long epochSecond = Math.floorDiv(epochMillis, 1000L);
+        SecondPrefix p = cached;
+        if (p.epochSecond != epochSecond) {
+            p = prefixFor(epochSecond);
+            cached = p;
+        }
+        System.arraycopy(p.chars, 0, dst, off, p.chars.length);
+        off += p.chars.length;
+        return write3(dst, off, (int) Math.floorMod(epochMillis, 1000L));
+    }
+
+    public void formatWallClock(long epochMillis, StringBuilder sink) {
+        char[] buf = SCRATCH.get();
+        sink.append(buf, 0, formatWallClock(epochMillis, buf, 0));
+    }
+
+    public String formatWallClock(long epochMillis) {
+        char[] buf = SCRATCH.get();
+        return new String(buf, 0, formatWallClock(epochMillis, buf, 0));
+    }
+
+    /**
+     * "HH:mm:ss" для местного времени (epoch millis, уже сдвинутые на смещение зоны).
+     * @return позиция сразу после записанных символов
+     */
+    public static int formatTimeOfDay(long localEpochMillis, char[] dst, int off) {
+        int secondOfDay = (int) Math.floorMod(Math.floorDiv(localEpochMillis, 1000L), 86_400L);
+        off = write2(dst, off, secondOfDay / 3600);
+        dst[off++] = ':';
+        off = write2(dst, off, (secondOfDay / 60) % 60);
+        dst[off++] = ':';
+        return write2(dst, off, secondOfDay % 60);
+    }
+
+    // раз в секунду: смещение зоны и "HH:mm:ss."
+    private SecondPrefix prefixFor(long epochSecond) {
+        int offset = offsets.offsetSeconds(epochSecond * 1000L);
+        int secondOfDay = (int) Math.floorMod(epochSecond + offset, 86_400L);
+        char[] chars = new char[9];
+        int pos = write2(chars, 0, secondOfDay / 3600);
+        chars[pos++] = ':';
+        pos = write2(chars, pos, (secondOfDay / 60) % 60);
+        chars[pos++] = ':';
+        pos = write2(chars, pos, secondOfDay % 60);
+        chars[pos] = '.';
+        return new SecondPrefix(epochSecond, chars);
+    }
+
+    // ---------------- секундомер ----------------
+
+    /** @return позиция сразу после записанных символов */
+    public static int formatElapsed(long elapsedMillis, char[] dst, int off) {
+        long ms = Math.max(0, elapsedMillis);
+        long hours = ms / (1000L * 60 * 60);
+        int minutes = (int) ((ms / (1000L * 60)) % 60);
+        int seconds = (int) ((ms / 1000) % 60);
+        int millis = (int) (ms % 1000);
+
+        if (hours < 100) {
+            off = write2(dst, off, (int) hours);
+        } else {
+            off = writeLong(dst, off, hours);
+        }
+        dst[off++] = ':';
+        off = write2(dst, off, minutes);
+        dst[off++] = ':';
+        off = write2(dst, off, seconds);
+        dst[off++] = '.';
+        return write3(dst, off, millis);
+    }
+
+    public static void formatElapsed(long elapsedMillis, StringBuilder sink) {
+        char[] buf = SCRATCH.get();
+        sink.append(buf, 0, formatElapsed(elapsedMillis, buf, 0));
+    }
+
+    public static String formatElapsed(long elapsedMillis) {
+        char[] buf = SCRATCH.get();
+        return new String(buf, 0, formatElapsed(elapsedMillis, buf, 0));
+    }
+
+    // ---------------- цифры ----------------
+
+    private static int write2(char[] dst, int off, int v) {
+        dst[off] = (char) ('0' + v / 10);
+        dst[off + 1] = (char) ('0' + v % 10);
+        return off + 2;
+    }
+
+    private static int write3(char[] dst, int off, int v) {
+        dst[off] = (char) ('0' + v / 100);
+        dst[off + 1] = (char) ('0' + (v / 10) % 10);
+        dst[off + 2] = (char) ('0' + v % 10);
+        return off + 3;
+    }
+
+    private static int writeLong(char[] dst, int off, long v) {
+        int digits = 1;
+        for (long t = v; t >= 10; t /= 10) digits++;
+        for (int i = off + digits - 1; i >= off; i--) {
+            dst[i] = (char) ('0' + v % 10);
+            v /= 10;
+        }
+        return off + digits;
+    }
+
+    private static final class SecondPrefix {
+        final long epochSecond;
+        final char[] chars;
+
+        SecondPrefix(long epochSecond, char[] chars) {
+            this.epochSecond = epochSecond;
+            this.chars = chars;
+        }
+    }
+}
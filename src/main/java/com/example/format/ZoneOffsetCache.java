@@ -0,0 +1,65 @@
+package com.example.format;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+/**
+ * Смещение зоны от UTC с кэшем до ближайшего перехода ZoneRules (переход на летнее время, смена пояса).
+ * Пока момент внутри окна [предыдущий переход, следующий переход), смещение — одно сравнение,
+ * ZoneRules трогается раз на окно: для большинства зон — пару раз в год, для фиксированных — никогда.
+ * Потокобезопасен: окно — неизменяемый объект в volatile-поле.
+ */
+public final class ZoneOffsetCache {
+
+    private final ZoneRules rules;
+    private volatile Window window = new Window(0, 0, 0); // пустое — первый вызов резолвит
+
+    private ZoneOffsetCache(ZoneId zone) {
+        this.rules = zone.getRules();
+    }
+
+    public static ZoneOffsetCache of(ZoneId zone) {
+        return new ZoneOffsetCache(zone);
+    }
+
+    /** Смещение в секундах для момента epochMillis. */
+    public int offsetSeconds(long epochMillis) {
+        Window w = window;
+        if (epochMillis < w.fromMillis || epochMillis >= w.untilMillis) {
+            w = resolve(epochMillis);
+            window = w;
+        }
+        return w.offsetSeconds;
+    }
+
+    /** Момент epochMillis в местном времени зоны, как epoch millis "местных" часов. */
+    public long toLocalMillis(long epochMillis) {
+        return epochMillis + offsetSeconds(epochMillis) * 1000L;
+    }
+
+    private Window resolve(long epochMillis) {
+        Instant instant = Instant.ofEpochMilli(epochMillis);
+        int offset = rules.getOffset(instant).getTotalSeconds();
+        if (rules.isFixedOffset()) return new Window(Long.MIN_VALUE, Long.MAX_VALUE, offset);
+        // previousTransition — строго раньше аргумента, поэтому +1 мс: переход ровно в epochMillis тоже граница
+        ZoneOffsetTransition prev = rules.previousTransition(instant.plusMillis(1));
+        ZoneOffsetTransition next = rules.nextTransition(instant);
+        long from = prev != null ? prev.getInstant().toEpochMilli() : Long.MIN_VALUE;
+        long until = next != null ? next.getInstant().toEpochMilli() : Long.MAX_VALUE;
+        return new Window(from, until, offset);
+    }
+
+    private static final class Window {
+        final long fromMillis;
+        final long untilMillis;
+        final int offsetSeconds;
+
+        Window(long fromMillis, long untilMillis, int offsetSeconds) {
+            this.fromMillis = fromMillis;
+            this.untilMillis = untilMillis;
+            this.offsetSeconds = offsetSeconds;
+        }
+    }
+}
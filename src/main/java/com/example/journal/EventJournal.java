@@ -0,0 +1,341 @@
+package com.example.journal;
+
+import com.example.model.EventRingBuffer;
+import com.example.model.MessageTable;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only журнал событий в memory-mapped файле.
+ *
+ * Файл: заголовок HEADER_BYTES + записи фиксированной ширины RECORD_BYTES
+ * (seq, timestamp, id сообщения, маркер записи). Тексты сообщений лежат рядом в файле
+ * "<имя>.msgs" (id -> строка), id совпадают с id MessageTable модели.
+ * Запись события — несколько put в отображённую память, без системного вызова;
+ * фоновый поток раз в flushIntervalMillis (или после groupCommitRecords записей) делает force
+ * и обновляет в заголовке число зафиксированных записей — по нему восстановление читает только хвост.
+ */
+public final class EventJournal implements Closeable {
+
+    public static final int RECORD_BYTES = 32;
+    public static final int HEADER_BYTES = 64;
+    /** id сообщения в записи-маркере очистки истории. */
+    public static final int CLEAR_MESSAGE_ID = -1;
+
+    private static final int MAGIC = 0x434C4B4A; // "CLKJ"
+    private static final int VERSION = 1;
+    private static final int RECORD_MARKER = 0x5245_4331;
+
+    private static final int HDR_MAGIC = 0;
+    private static final int HDR_VERSION = 4;
+    private static final int HDR_RECORD_BYTES = 8;
+    private static final int HDR_COMMITTED = 16;
+
+    private static final int REC_SEQ = 0;
+    private static final int REC_TS = 8;
+    private static final int REC_MESSAGE = 16;
+    private static final int REC_MARKER = 24;
+
+    private static final int RECORDS_PER_REGION_SHIFT = 20; // 1M записей = 32 MiB на регион
+    private static final int RECORDS_PER_REGION = 1 << RECORDS_PER_REGION_SHIFT;
+    private static final long REGION_BYTES = (long) RECORDS_PER_REGION * RECORD_BYTES;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private volatile MappedByteBuffer[] regions = new MappedByteBuffer[0];
+
+    private final FileChannel dictionaryChannel;
+    private final DataOutputStream dictionaryOut;
+    private final List<String> dictionary;
+    private volatile int dictionarySize;
+    private MessageTable boundMessages; // guarded by dictionary
+
+    private final AtomicLong next;
+    private final AtomicLong unflushed = new AtomicLong();
+    private volatile long flushedUpTo;
+    private final long flushIntervalNanos;
+    private final int groupCommitRecords;
+    private final Thread flusher;
+    private volatile boolean closed;
+
+    private EventJournal(Path file, long flushIntervalMillis, int groupCommitRecords) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean fresh = channel.size() < HEADER_BYTES;
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        if (fresh) {
+            header.putInt(HDR_MAGIC, MAGIC);
+            header.putInt(HDR_VERSION, VERSION);
+            header.putInt(HDR_RECORD_BYTES, RECORD_BYTES);
+            header.putLong(HDR_COMMITTED, 0);
+            header.force();
+        } else if (header.getInt(HDR_MAGIC) != MAGIC || header.getInt(HDR_RECORD_BYTES) != RECORD_BYTES) {
+            channel.close();
+            throw new IOException("Not an event journal: " + file);
+        }
+
+        Path dictionaryFile = file.resolveSibling(file.getFileName() + ".msgs");
+        this.dictionary = new ArrayList<>();
+        long dictionaryBytes = readDictionary(dictionaryFile, dictionary);
+        this.dictionarySize = dictionary.size();
+        this.dictionaryChannel = FileChannel.open(dictionaryFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        dictionaryChannel.truncate(dictionaryBytes); // отрезаем оборванную при падении запись
+        this.dictionaryOut = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(dictionaryChannel)));
+
+        long end = recoverEnd(header.getLong(HDR_COMMITTED));
+        this.next = new AtomicLong(end);
+        this.flushedUpTo = end;
+
+        this.flushIntervalNanos = Math.max(1, flushIntervalMillis) * 1_000_000L;
+        this.groupCommitRecords = Math.max(1, groupCommitRecords);
+        this.flusher = new Thread(this::flushLoop, "clock-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public static EventJournal open(Path file) throws IOException {
+        return open(file, 50, 1024);
+    }
+
+    /**
+     * @param flushIntervalMillis  как часто фоновый поток фиксирует записанное на диск
+     * @param groupCommitRecords   после скольких незафиксированных записей фиксировать досрочно
+     */
+    public static EventJournal open(Path file, long flushIntervalMillis, int groupCommitRecords) throws IOException {
+        return new EventJournal(file, flushIntervalMillis, groupCommitRecords);
+    }
+
+    // ---------------- словарь сообщений ----------------
+
+    /** Тексты сообщений журнала в порядке id. */
+    public List<String> messages() {
+        synchronized (dictionary) {
+            return List.copyOf(dictionary);
+        }
+    }
+
+    /**
+     * Связать журнал с таблицей сообщений модели: id в записях — это id этой таблицы,
+     * новые сообщения дописываются в словарь по мере появления.
+     */
+    public void bindMessages(MessageTable messages) {
+        synchronized (dictionary) {
+            for (int id = 0; id < dictionary.size(); id++) {
+                if (id >= messages.size() || !dictionary.get(id).equals(messages.message(id))) {
+                    throw new IllegalStateException("Journal dictionary does not match model messages at id " + id);
+                }
+            }
+            boundMessages = messages;
+        }
+    }
+
+    private void ensureDictionary(int messageId) {
+        if (messageId < dictionarySize) return;
+        synchronized (dictionary) {
+            try {
+                for (int id = dictionary.size(); id <= messageId; id++) {
+                    String text = boundMessages.message(id);
+                    dictionaryOut.writeInt(id);
+                    dictionaryOut.writeUTF(text);
+                    dictionary.add(text);
+                }
+                dictionaryOut.flush();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            dictionarySize = dictionary.size();
+        }
+    }
+
+    /** @return длина корректной части файла словаря в байтах */
+    private static long readDictionary(Path file, List<String> out) throws IOException {
+        if (!Files.exists(file)) return 0;
+        byte[] data = Files.readAllBytes(file);
+        ByteArrayInputStream bytes = new ByteArrayInputStream(data);
+        DataInputStream in = new DataInputStream(bytes);
+        long valid = 0;
+        try {
+            while (bytes.available() > 0) {
+                int id = in.readInt();
+                String text = in.readUTF();
+                if (id != out.size()) break; // чужой хвост
+                out.add(text);
+                valid = data.length - bytes.available();
+            }
+        } catch (EOFException | UTFDataFormatException ignored) {
+            // запись оборвана при падении
+        }
+        return valid;
+    }
+
+    // ---------------- запись ----------------
+
+    public void append(long seq, long timestampMillis, int messageId) {
+        ensureDictionary(messageId);
+        write(seq, timestampMillis, messageId);
+    }
+
+    /** Маркер clearEvents: при восстановлении события до него не возвращаются. */
+    public void appendClear(long seq) {
+        write(seq, 0, CLEAR_MESSAGE_ID);
+    }
+
+    private void write(long seq, long timestampMillis, int messageId) {
+        long index = next.getAndIncrement();
+        MappedByteBuffer buf = region(index);
+        int off = (int) ((index & (RECORDS_PER_REGION - 1)) * RECORD_BYTES);
+        // абсолютные put в непересекающиеся записи — позиция буфера не меняется, писатели не мешают друг другу
+        buf.putLong(off + REC_SEQ, seq);
+        buf.putLong(off + REC_TS, timestampMillis);
+        buf.putInt(off + REC_MESSAGE, messageId);
+        buf.putInt(off + REC_MARKER, RECORD_MARKER); // последним: запись целиком видна при восстановлении
+        if (unflushed.incrementAndGet() >= groupCommitRecords) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    private MappedByteBuffer region(long index) {
+        int r = (int) (index >>> RECORDS_PER_REGION_SHIFT);
+        MappedByteBuffer[] arr = regions;
+        if (r < arr.length && arr[r] != null) return arr[r];
+        synchronized (this) {
+            arr = regions;
+            if (r >= arr.length) arr = Arrays.copyOf(arr, Math.max(r + 1, arr.length * 2));
+            if (arr[r] == null) {
+                try {
+                    arr[r] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + r * REGION_BYTES, REGION_BYTES);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+            regions = arr;
+            return arr[r];
+        }
+    }
+
+    // ---------------- group commit ----------------
+
+    private void flushLoop() {
+        while (!closed) {
+            LockSupport.parkNanos(this, flushIntervalNanos);
+            try {
+                flush();
+            } catch (Throwable ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    /** Зафиксировать на диске всё, что записано к этому моменту. */
+    public synchronized void flush() throws IOException {
+        long upTo = next.get();
+        long from = flushedUpTo;
+        if (upTo == from) return;
+        unflushed.set(0);
+        dictionaryChannel.force(false);
+        for (long index = from; index < upTo; ) {
+            long regionEnd = Math.min(upTo, ((index >>> RECORDS_PER_REGION_SHIFT) + 1) << RECORDS_PER_REGION_SHIFT);
+            int off = (int) ((index & (RECORDS_PER_REGION - 1)) * RECORD_BYTES);
+            region(index).force(off, (int) ((regionEnd - index) * RECORD_BYTES));
+            index = regionEnd;
+        }
+        header.putLong(HDR_COMMITTED, upTo);
+        header.force();
+        flushedUpTo = upTo;
+    }
+
+    // ---------------- восстановление ----------------
+
+    private boolean isRecord(long index) {
+        MappedByteBuffer buf = region(index);
+        int off = (int) ((index & (RECORDS_PER_REGION - 1)) * RECORD_BYTES);
+        return buf.getInt(off + REC_MARKER) == RECORD_MARKER;
+    }
+
+    // за зафиксированным счётчиком могут лежать записи, успевшие попасть в page cache до падения
+    private long recoverEnd(long committed) throws IOException {
+        long fileRecords = Math.max(0, (channel.size() - HEADER_BYTES) / RECORD_BYTES);
+        long end = Math.min(committed, fileRecords);
+        while (end < fileRecords && isRecord(end)) end++;
+        return end;
+    }
+
+    /** Число записей в журнале (включая маркеры очистки). */
+    public long size() {
+        return next.get();
+    }
+
+    /**
+     * Прочитать последние maxEvents событий после последнего маркера очистки — только хвост файла.
+     * Visitor получает (seq, timestamp, id сообщения из messages()) в порядке записи: при параллельных
+     * писателях он может немного расходиться с порядком номеров, дыры и маркеры пропускаются.
+     * @return номер, с которого модель продолжит нумерацию: больше всех номеров прочитанного хвоста
+     *         и не меньше номера последнего маркера очистки
+     */
+    public long replayTail(int maxEvents, EventRingBuffer.EntryVisitor visitor) {
+        long end = next.get();
+        long start = end;
+        long nextSeq = 0;
+        int found = 0;
+        for (long index = end - 1; index >= 0 && found < maxEvents; index--) {
+            if (!isRecord(index)) continue; // дыра: номер был занят, но запись не успела
+            if (messageIdAt(index) == CLEAR_MESSAGE_ID) {
+                nextSeq = seqAt(index); // маркер хранит head модели на момент очистки
+                break;
+            }
+            start = index;
+            found++;
+        }
+        for (long index = start; index < end; index++) {
+            if (!isRecord(index)) continue;
+            long seq = seqAt(index);
+            int messageId = messageIdAt(index);
+            if (messageId == CLEAR_MESSAGE_ID) {
+                nextSeq = Math.max(nextSeq, seq);
+                continue;
+            }
+            nextSeq = Math.max(nextSeq, seq + 1);
+            MappedByteBuffer buf = region(index);
+            int off = (int) ((index & (RECORDS_PER_REGION - 1)) * RECORD_BYTES);
+            visitor.visit(seq, buf.getLong(off + REC_TS), messageId);
+        }
+        return nextSeq;
+    }
+
+    private long seqAt(long index) {
+        int off = (int) ((index & (RECORDS_PER_REGION - 1)) * RECORD_BYTES);
+        return region(index).getLong(off + REC_SEQ);
+    }
+
+    private int messageIdAt(long index) {
+        int off = (int) ((index & (RECORDS_PER_REGION - 1)) * RECORD_BYTES);
+        return region(index).getInt(off + REC_MESSAGE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(1000);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        synchronized (dictionary) {
+            dictionaryOut.close();
+        }
+        channel.close();
+    }
+}
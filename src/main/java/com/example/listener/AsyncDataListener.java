@@ -0,0 +1,71 @@
+package com.example.listener;
+
+import com.example.dispatch.BoundedLane;
+import com.example.dispatch.OverflowPolicy;
+import com.example.model.ClockEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * DataListener со своей ограниченной очередью и своим executor-ом: модель только ставит пачку
+ * в очередь, сам слушатель вызывается в другом потоке. Элемент очереди — пачка onNewValues;
+ * COALESCE_LATEST склеивает новую пачку с последней в очереди: значения не теряются и идут по порядку,
+ * но последний элемент очереди растёт, пока слушатель отстаёт. Терять данные — это DROP_OLDEST/DROP_NEWEST.
+ */
+public final class AsyncDataListener implements DataListener {
+
+    private final DataListener delegate;
+    private final BoundedLane<List<ClockEvent>> lane;
+
+    public AsyncDataListener(DataListener delegate, Executor executor, int capacity, OverflowPolicy policy) {
+        this.delegate = delegate;
+        this.lane = new BoundedLane<>(executor, capacity, policy, AsyncDataListener::merge,
+                batch -> delegate.onNewValues(batch instanceof MergedBatch ? Collections.unmodifiableList(batch) : batch));
+    }
+
+    // слияние идёт под замком очереди, пока пачка в ней, — поэтому дописываем в уже склеенную на месте,
+    // без копирования всего накопленного на каждую новую пачку
+    private static List<ClockEvent> merge(List<ClockEvent> older, List<ClockEvent> newer) {
+        if (older instanceof MergedBatch) {
+            older.addAll(newer);
+            return older;
+        }
+        MergedBatch merged = new MergedBatch(older.size() + newer.size());
+        merged.addAll(older);
+        merged.addAll(newer);
+        return merged;
+    }
+
+    /** Пачка, склеенная COALESCE_LATEST, — своя, её можно дописывать. */
+    private static final class MergedBatch extends ArrayList<ClockEvent> {
+        MergedBatch(int capacity) {
+            super(capacity);
+        }
+    }
+
+    @Override
+    public void onNewValue(long currentTimeMillis, String message) {
+        lane.offer(List.of(new ClockEvent(currentTimeMillis, message)));
+    }
+
+    @Override
+    public void onNewValues(List<ClockEvent> events) {
+        lane.offer(events);
+    }
+
+    public DataListener getDelegate() {
+        return delegate;
+    }
+
+    /** Сколько пачек выброшено (DROP_OLDEST/DROP_NEWEST) или склеено с соседней (COALESCE_LATEST) по политике переполнения. */
+    public long getDropped() {
+        return lane.getDropped();
+    }
+
+    public void close() {
+        lane.close();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.listener;
+
+import com.example.dispatch.BoundedLane;
+import com.example.dispatch.OverflowPolicy;
+import com.example.model.ClockEvent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * EventListListener со своей ограниченной очередью и своим executor-ом.
+ * Элемент очереди — дельта списка (удалённые + добавленные + продлённые серии). COALESCE_LATEST сливает дельты
+ * без потерь: событие, добавленное и удалённое внутри слитых дельт, слушатель не увидит вовсе,
+ * поэтому его копия списка остаётся согласованной с моделью. DROP_* такой гарантии не дают.
+ */
+public final class AsyncEventListListener implements EventListListener {
+
+    private final EventListListener delegate;
+    private final BoundedLane<Delta> lane;
+
+    public AsyncEventListListener(EventListListener delegate, Executor executor, int capacity, OverflowPolicy policy) {
+        this.delegate = delegate;
+        this.lane = new BoundedLane<>(executor, capacity, policy, Delta::merge, this::apply);
+    }
+
+    @Override
+    public void onEventAdded(ClockEvent e) {
+        lane.offer(new Delta(List.of(), List.of(e), List.of()));
+    }
+
+    @Override
+    public void onEventRemoved(ClockEvent e) {
+        lane.offer(new Delta(List.of(e), List.of(), List.of()));
+    }
+
+    @Override
+    public void onEventsAdded(List<ClockEvent> events) {
+        lane.offer(new Delta(List.of(), events, List.of()));
+    }
+
+    @Override
+    public void onEventsRemoved(List<ClockEvent> events) {
+        lane.offer(new Delta(events, List.of(), List.of()));
+    }
+
+    @Override
+    public void onEventExtended(ClockEvent e) {
+        lane.offer(new Delta(List.of(), List.of(), List.of(e)));
+    }
+
+    @Override
+    public void onEventsExtended(List<ClockEvent> events) {
+        lane.offer(new Delta(List.of(), List.of(), events));
+    }
+
+    private void apply(Delta d) {
+        if (!d.removed.isEmpty()) delegate.onEventsRemoved(d.removed);
+        if (!d.added.isEmpty()) delegate.onEventsAdded(d.added);
+        if (!d.extended.isEmpty()) delegate.onEventsExtended(d.extended);
+    }
+
+    public EventListListener getDelegate() {
+        return delegate;
+    }
+
+    /** Сколько дельт выброшено или слито по политике переполнения. */
+    public long getDropped() {
+        return lane.getDropped();
+    }
+
+    public void close() {
+        lane.close();
+    }
+
+    private static final class Delta {
+        final List<ClockEvent> removed;
+        final List<ClockEvent> added;
+        final List<ClockEvent> extended;
+
+        Delta(List<ClockEvent> removed, List<ClockEvent> added, List<ClockEvent> extended) {
+            this.removed = removed;
+            this.added = added;
+            this.extended = extended;
+        }
+
+        // сначала a, потом b: удаления a + удаления b того, чего не было в a.added; добавления a без удалённых в b + добавления b;
+        // продление из b для события из a.added уходит прямо в добавление, для a.extended — заменяет его
+        static Delta merge(Delta a, Delta b) {
+            Set<ClockEvent> addedInA = new HashSet<>(a.added);
+            Set<ClockEvent> removedInB = new HashSet<>(b.removed);
+            Map<ClockEvent, ClockEvent> extendedInB = new HashMap<>();
+            for (ClockEvent e : b.extended) extendedInB.put(e, e);
+            List<ClockEvent> removed = new ArrayList<>(a.removed);
+            for (ClockEvent e : b.removed) {
+                if (!addedInA.contains(e)) removed.add(e);
+            }
+            List<ClockEvent> added = new ArrayList<>(a.added.size() + b.added.size());
+            for (ClockEvent e : a.added) {
+                if (!removedInB.contains(e)) added.add(extendedInB.getOrDefault(e, e));
+            }
+            added.addAll(b.added);
+            List<ClockEvent> extended = new ArrayList<>(a.extended.size() + b.extended.size());
+            for (ClockEvent e : a.extended) {
+                if (!removedInB.contains(e) && !extendedInB.containsKey(e)) extended.add(e);
+            }
+            for (ClockEvent e : b.extended) {
+                if (!addedInA.contains(e)) extended.add(e);
+            }
+            return new Delta(List.copyOf(removed), List.copyOf(added), List.copyOf(extended));
+        }
+    }
+}
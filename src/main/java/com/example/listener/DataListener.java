@@ -1,5 +1,16 @@
 package com.example.listener;
 
+import com.example.model.ClockEvent;
+
+import java.util.List;
+
 public interface DataListener {
     void onNewValue(long currentTimeMillis, String message);
-}
\ No newline at end of file
+
+    /**
+     * Пакетная форма: все новые события с прошлого flush, в порядке добавления.
+     */
+    default void onNewValues(List<ClockEvent> events) {
+        for (ClockEvent e : events) onNewValue(e.getTimestampMillis(), e.getMessage());
+    }
+}
@@ -2,7 +2,34 @@ package com.example.listener;
 
 import com.example.model.ClockEvent;
 
+import java.util.List;
+
 public interface EventListListener {
     void onEventAdded(ClockEvent e);
     void onEventRemoved(ClockEvent e);
-}
\ No newline at end of file
+
+    /**
+     * Пакетная доставка: модель собирает дельты и отдаёт их одним вызовом на flush.
+     * Сначала приходят удаления, затем добавления; порядок внутри списка — порядок событий.
+     * По умолчанию разворачивается в поштучные вызовы.
+     */
+    default void onEventsAdded(List<ClockEvent> events) {
+        for (ClockEvent e : events) onEventAdded(e);
+    }
+
+    default void onEventsRemoved(List<ClockEvent> events) {
+        for (ClockEvent e : events) onEventRemoved(e);
+    }
+
+    /**
+     * Серия уже показанного события продлилась (сжатие повторов в модели): e равно прежнему событию
+     * по equals, изменились только getCount() и getLastTimestampMillis(). Приходит после добавлений батча.
+     * По умолчанию игнорируется — список слушателя остаётся верным, без новых счётчиков.
+     */
+    default void onEventExtended(ClockEvent e) {
+    }
+
+    default void onEventsExtended(List<ClockEvent> events) {
+        for (ClockEvent e : events) onEventExtended(e);
+    }
+}
@@ -3,7 +3,10 @@ package com.example.listener;
 
 /**
  * Интерфейс слушателя модели (View подписывается на модель).
- * Все методы вызываются в EDT (модель гарантирует вызов через SwingUtilities.invokeLater).
+ * Методы вызываются в потоке доставки модели — том, что выбран её Dispatcher-ом: в EDT только
+ * при EdtDispatcher (по умолчанию), иначе в потоке диспетчера. Вызовы одного слушателя идут по очереди.
+ * Swing-представление, которому нужен EDT, само переходит туда (SwingUtilities.invokeLater),
+ * если вызвано в другом потоке.
  */
 public interface UIListener {
     /**
@@ -0,0 +1,215 @@
+package com.example.metrics;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Метрики конвейера тик -> модель -> диспетчер -> слушатели одной модели.
+ * Запись — lock-free (LagHistogram, LongAdder), поэтому её можно не выключать;
+ * снаружи метрики видны через JMX (ClockMetricsMBean), подробности по отдельным
+ * тикам и вызовам — через JFR-события этого пакета.
+ */
+public final class ClockMetrics implements ClockMetricsMBean {
+
+    private final LagHistogram tickLag = new LagHistogram();
+    private final LagHistogram tickDuration = new LagHistogram();
+    private final LagHistogram dispatchLag = new LagHistogram();
+    private final LagHistogram callbackDuration = new LagHistogram();
+    private final LongAdder listenerExceptions = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder staleUpdates = new LongAdder();
+    private final IntSupplier occupancy;
+    private final int capacity;
+    private ObjectName registeredName; // guarded by this
+
+    /**
+     * @param occupancy сколько событий сейчас в истории модели
+     * @param capacity  ёмкость истории
+     */
+    public ClockMetrics(IntSupplier occupancy, int capacity) {
+        this.occupancy = occupancy;
+        this.capacity = capacity;
+    }
+
+    // ---------------- запись ----------------
+
+    public void recordTick(long lagNanos, long durationNanos) {
+        tickLag.record(lagNanos);
+        tickDuration.record(durationNanos);
+    }
+
+    public void recordDispatchLag(long lagNanos) {
+        dispatchLag.record(lagNanos);
+    }
+
+    public void recordCallback(long durationNanos) {
+        callbackDuration.record(durationNanos);
+    }
+
+    public void recordListenerException() {
+        listenerExceptions.increment();
+    }
+
+    public void recordEviction() {
+        evictions.increment();
+    }
+
+    /** Обновление времени от прежней стратегии выброшено после смены режима. */
+    public void recordStaleUpdate() {
+        staleUpdates.increment();
+    }
+
+    /** Задержка старта тиков относительно расписания, нс. */
+    public LagHistogram getTickLag() {
+        return tickLag;
+    }
+
+    public LagHistogram getTickDuration() {
+        return tickDuration;
+    }
+
+    /** От постановки задачи доставки в диспетчер (для EDT — в очередь AWT) до её начала, нс. */
+    public LagHistogram getDispatchLag() {
+        return dispatchLag;
+    }
+
+    public LagHistogram getCallbackDuration() {
+        return callbackDuration;
+    }
+
+    // ---------------- JMX ----------------
+
+    /**
+     * Зарегистрировать в платформенном MBeanServer как com.example.clock:type=ClockModel,name=...
+     * Ошибка регистрации не мешает работе часов.
+     */
+    public synchronized void registerMBean(String name) {
+        if (registeredName != null) return;
+        try {
+            ObjectName on = new ObjectName("com.example.clock:type=ClockModel,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, on);
+            registeredName = on;
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    public synchronized void unregisterMBean() {
+        if (registeredName == null) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+        registeredName = null;
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+
+    @Override
+    public long getTickCount() {
+        return tickLag.getCount();
+    }
+
+    @Override
+    public double getTickLagP50Micros() {
+        return micros(tickLag.getPercentile(50));
+    }
+
+    @Override
+    public double getTickLagP99Micros() {
+        return micros(tickLag.getPercentile(99));
+    }
+
+    @Override
+    public double getTickLagMaxMicros() {
+        return micros(tickLag.getMax());
+    }
+
+    @Override
+    public double getTickDurationP99Micros() {
+        return micros(tickDuration.getPercentile(99));
+    }
+
+    @Override
+    public long getDispatchCount() {
+        return dispatchLag.getCount();
+    }
+
+    @Override
+    public double getDispatchLagP50Micros() {
+        return micros(dispatchLag.getPercentile(50));
+    }
+
+    @Override
+    public double getDispatchLagP99Micros() {
+        return micros(dispatchLag.getPercentile(99));
+    }
+
+    @Override
+    public double getDispatchLagMaxMicros() {
+        return micros(dispatchLag.getMax());
+    }
+
+    @Override
+    public long getCallbackCount() {
+        return callbackDuration.getCount();
+    }
+
+    @Override
+    public double getCallbackP99Micros() {
+        return micros(callbackDuration.getPercentile(99));
+    }
+
+    @Override
+    public double getCallbackMaxMicros() {
+        return micros(callbackDuration.getMax());
+    }
+
+    @Override
+    public long getListenerExceptions() {
+        return listenerExceptions.sum();
+    }
+
+    @Override
+    public int getBufferOccupancy() {
+        return occupancy.getAsInt();
+    }
+
+    @Override
+    public int getBufferCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public long getStaleUpdatesDropped() {
+        return staleUpdates.sum();
+    }
+
+    @Override
+    public void reset() {
+        tickLag.reset();
+        tickDuration.reset();
+        dispatchLag.reset();
+        callbackDuration.reset();
+        listenerExceptions.reset();
+        evictions.reset();
+        staleUpdates.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "tickLag[" + tickLag + "] dispatchLag[" + dispatchLag + "] callback[" + callbackDuration
+                + "] exceptions=" + getListenerExceptions() + " evictions=" + getEvictions()
+                + " occupancy=" + getBufferOccupancy() + "/" + capacity;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.metrics;
+
+/** JMX-интерфейс ClockMetrics; времена в микросекундах. */
+public interface ClockMetricsMBean {
+
+    long getTickCount();
+    double getTickLagP50Micros();
+    double getTickLagP99Micros();
+    double getTickLagMaxMicros();
+    double getTickDurationP99Micros();
+
+    long getDispatchCount();
+    double getDispatchLagP50Micros();
+    double getDispatchLagP99Micros();
+    double getDispatchLagMaxMicros();
+
+    long getCallbackCount();
+    double getCallbackP99Micros();
+    double getCallbackMaxMicros();
+    long getListenerExceptions();
+
+    int getBufferOccupancy();
+    int getBufferCapacity();
+    long getEvictions();
+    long getStaleUpdatesDropped();
+
+    void reset();
+}
@@ -0,0 +1,25 @@
+package com.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/** Одна задача доставки модели (разбор очереди дельт) в потоке диспетчера — для EDT это задача в очереди AWT. */
+@Name("com.example.clock.Dispatch")
+@Label("Clock Notification Dispatch")
+@Category({"MyClock", "Notifications"})
+@StackTrace(false)
+public class DispatchEvent extends Event {
+
+    @Label("Queue Lag")
+    @Description("От постановки задачи в диспетчер до начала её выполнения")
+    @Timespan(Timespan.NANOSECONDS)
+    public long queueLag;
+
+    @Label("Dispatcher")
+    public String dispatcher;
+}
@@ -0,0 +1,23 @@
+package com.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/** Медленный вызов слушателя модели; по умолчанию пишутся только вызовы дольше порога. */
+@Name("com.example.clock.ListenerCallback")
+@Label("Clock Listener Callback")
+@Category({"MyClock", "Notifications"})
+@Threshold("1 ms")
+@StackTrace(false)
+public class ListenerCallbackEvent extends Event {
+
+    @Label("Listener Class")
+    public Class<?> listenerClass;
+
+    @Label("Failed")
+    public boolean failed;
+}
@@ -0,0 +1,22 @@
+package com.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Исключение, выброшенное слушателем модели (с трассой вызова). */
+@Name("com.example.clock.ListenerFailure")
+@Label("Clock Listener Failure")
+@Category({"MyClock", "Notifications"})
+public class ListenerFailureEvent extends Event {
+
+    @Label("Listener Class")
+    public Class<?> listenerClass;
+
+    @Label("Exception Class")
+    public Class<?> exceptionClass;
+
+    @Label("Message")
+    public String message;
+}
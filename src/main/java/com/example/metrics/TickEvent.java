@@ -0,0 +1,25 @@
+package com.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/** Один тик ClockController: длительность события — выполнение тика. */
+@Name("com.example.clock.Tick")
+@Label("Clock Tick")
+@Category({"MyClock", "Ticker"})
+@StackTrace(false)
+public class TickEvent extends Event {
+
+    @Label("Scheduling Lag")
+    @Description("Насколько тик стартовал позже запланированного момента")
+    @Timespan(Timespan.NANOSECONDS)
+    public long lag;
+
+    @Label("Emitted Event")
+    public boolean emitted;
+}
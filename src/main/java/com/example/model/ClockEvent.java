@@ -1,19 +1,43 @@
 package com.example.model;
 import java.time.LocalTime;
+import java.util.Objects;
 
 /**
  * Event object — минимальный immutable объект для события.
  * timestampMillis — источник времени берётся из TimeStrategy.getCurrentTimeMillis()
+ * sequence — порядковый номер записи в истории модели (-1, если событие создано вне модели).
+ * Модель хранит события в примитивном виде и материализует ClockEvent только для доставки,
+ * поэтому сравнение идёт по значению, а не по ссылке.
+ * count и lastTimestampMillis — для серий одинаковых сообщений при сжатии повторов
+ * (ClockModel.setCompactRepeats); в сравнении не участвуют: продлённая серия — то же событие.
  */
 public final class ClockEvent {
+    private final long sequence;
     private final long timestampMillis;
     private final String message;
+    private final int count;
+    private final long lastTimestampMillis;
 
     public ClockEvent(long timestampMillis, String message) {
+        this(-1, timestampMillis, message);
+    }
+
+    public ClockEvent(long sequence, long timestampMillis, String message) {
+        this(sequence, timestampMillis, timestampMillis, 1, message);
+    }
+
+    public ClockEvent(long sequence, long timestampMillis, long lastTimestampMillis, int count, String message) {
+        this.sequence = sequence;
         this.timestampMillis = timestampMillis;
+        this.lastTimestampMillis = lastTimestampMillis;
+        this.count = count;
         this.message = message;
     }
 
+    public long getSequence() {
+        return sequence;
+    }
+
     public long getTimestampMillis() {
         return timestampMillis;
     }
@@ -22,8 +46,35 @@ public final class ClockEvent {
         return message;
     }
 
+    /** Сколько одинаковых сообщений подряд слито в это событие (1 — без сжатия). */
+    public int getCount() {
+        return count;
+    }
+
+    /** Время последнего сообщения серии; для одиночного события совпадает с timestampMillis. */
+    public long getLastTimestampMillis() {
+        return lastTimestampMillis;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ClockEvent)) return false;
+        ClockEvent other = (ClockEvent) o;
+        return sequence == other.sequence
+                && timestampMillis == other.timestampMillis
+                && Objects.equals(message, other.message);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(sequence) * 31 + Long.hashCode(timestampMillis);
+    }
+
     @Override
     public String toString() {
-        return "[" + timestampMillis + "] " + message;
+        return count > 1
+                ? "[" + timestampMillis + ".." + lastTimestampMillis + "] " + message + " x" + count
+                : "[" + timestampMillis + "] " + message;
     }
-}
\ No newline at end of file
+}
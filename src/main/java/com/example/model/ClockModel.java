@@ -1,36 +1,110 @@
 package com.example.model;
 
+import com.example.dispatch.Dispatcher;
+import com.example.dispatch.EdtDispatcher;
+import com.example.dispatch.OverflowPolicy;
+import com.example.listener.AsyncDataListener;
+import com.example.listener.AsyncEventListListener;
+import com.example.journal.EventJournal;
 import com.example.listener.UIListener;
 import com.example.listener.DataListener;
 import com.example.listener.EventListListener;
+import com.example.metrics.ClockMetrics;
+import com.example.metrics.DispatchEvent;
+import com.example.metrics.ListenerCallbackEvent;
+import com.example.metrics.ListenerFailureEvent;
 
-import javax.swing.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 public class ClockModel {
 
-    private final Deque<ClockEvent> events = new ArrayDeque<>();
+    // сколько дельт максимум разбирается за одну задачу доставки, чтобы не задерживать отрисовку
+    private static final int MAX_DELTAS_PER_FLUSH = 4096;
+
+    // какие дельты производители кладут в очередь: никакие / только добавления (DataListener-ы) / все
+    private static final int DELTAS_NONE = 0;
+    private static final int DELTAS_DATA = 1;
+    private static final int DELTAS_ALL = 2;
+
+    private final EventRingBuffer events;
+    private final MessageTable messages = new MessageTable();
+    private final EventRingBuffer.AppendObserver appendObserver = this::onEventAppended;
+    private final EventRingBuffer.RunVisitor extendObserver = this::onRunExtended;
     private final List<UIListener> uiListeners = new CopyOnWriteArrayList<>();
     private final List<DataListener> dataListeners = new CopyOnWriteArrayList<>();
     private final List<EventListListener> eventListeners = new CopyOnWriteArrayList<>();
+    // исходный слушатель -> его асинхронная обёртка, чтобы отписка работала по исходному
+    private final Map<DataListener, AsyncDataListener> asyncDataListeners = new ConcurrentHashMap<>();
+    private final Map<EventListListener, AsyncEventListListener> asyncEventListeners = new ConcurrentHashMap<>();
+    private final List<FlowSubscription<?>> flowSubscriptions = new CopyOnWriteArrayList<>();
 
-    private volatile TimeStrategy strategy; //volatile чтобы было видно изменение стратегии
+    // стратегия вместе с номером эпохи: смена стратегии — одна volatile-запись, тикер подхватывает её на следующем тике
+    private volatile StrategyEpoch current;
     private final int maxEvents;
+    private final Dispatcher dispatcher;
+    private volatile EventJournal journal;
+    private final ClockMetrics metrics;
+    // сжатие повторов: производители и clearEvents идут под замком, чтобы «последнее событие» не менялось под ногами
+    private volatile boolean compactRepeats;
+    private final Object compactionLock = new Object();
+
+    // ---- батчинг уведомлений: производители кладут дельты в очередь, диспетчер разбирает их одной задачей ----
+    private final Queue<Delta> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicReference<TimeSample> pendingTime = new AtomicReference<>(); // null — время не менялось
+    // без слушателей добавление события ничего не выделяет; режим повышается при подписке (под замком),
+    // понижается в drain, когда слушатели ушли, а очередь пуста
+    private volatile int deltaMode = DELTAS_NONE;
+    private final Object deltaModeLock = new Object();
+    private final Runnable drainTask = this::drain;
+    private volatile long drainScheduledNanos; // когда задача доставки поставлена в диспетчер
+    // состояние ниже трогается только из задачи drain
+    private long deliveredEpoch; // эпоха, режим которой уже показан UIListener-ам
+    private final Deque<ClockEvent> delivered = new ArrayDeque<>(); // то, что уже видят EventListListener-ы
+    private boolean listMode;  // delivered ведётся, только пока есть слушатели списка
+    private long snapshotSeq;  // события с меньшими номерами вошли в delivered из снимка кольца, их добавления пропускаем
+    // добавления и продления батча — по seq: вытеснение и замена без линейного поиска и без хеш-таблицы
+    private final SeqBatch batchAdded = new SeqBatch();
+    private final List<ClockEvent> batchRemoved = new ArrayList<>();
+    private final List<ClockEvent> batchData = new ArrayList<>();
+    private final SeqBatch batchUpdated = new SeqBatch();
+    private final EventTimeIndex timeIndex; // пишут производители, читают запросы из любых потоков
 
     public ClockModel(TimeStrategy initialStrategy, int maxEvents) {
-        this.strategy = Objects.requireNonNull(initialStrategy);
+        this(initialStrategy, maxEvents, new EdtDispatcher());
+    }
+
+    /**
+     * @param dispatcher куда доставлять уведомления (EDT, тот же поток, отдельный поток, виртуальные потоки) —
+     *                   без EdtDispatcher модель и контроллер работают без AWT
+     */
+    public ClockModel(TimeStrategy initialStrategy, int maxEvents, Dispatcher dispatcher) {
+        this.current = new StrategyEpoch(Objects.requireNonNull(initialStrategy), 0);
         this.maxEvents = Math.max(1, maxEvents);
+        this.dispatcher = Objects.requireNonNull(dispatcher);
+        this.events = new EventRingBuffer(this.maxEvents);
+        this.timeIndex = new EventTimeIndex(this.maxEvents);
+        this.metrics = new ClockMetrics(timeIndex::count, this.maxEvents);
     }
 
     // ---------------- listener management ----------------
     public void addUiListener(UIListener l) {
         uiListeners.add(Objects.requireNonNull(l));
-        SwingUtilities.invokeLater(() -> {
+        dispatcher.execute(() -> deliver(l, () -> {
+            TimeStrategy strategy = current.strategy;
             l.onModeChanged(strategy.getModeLabel());
             l.onTimeUpdated(strategy.getCurrentTimeMillis());
 //            l.onEventsUpdated(Collections.unmodifiableList(new ArrayList<>(events))); // передача событий НЕ через UI listener
-        });
+        }));
     }
 
     public void removeUiListener(UIListener l) {
@@ -38,124 +112,792 @@ public class ClockModel {
     }
 
     public void addDataListener(DataListener l) {
-        dataListeners.add(Objects.requireNonNull(l));
+        Objects.requireNonNull(l);
+        synchronized (deltaModeLock) {
+            dataListeners.add(l);
+            if (deltaMode < DELTAS_DATA) deltaMode = DELTAS_DATA;
+        }
+    }
+
+    /**
+     * Подписать слушателя со своей ограниченной очередью на своём executor-е (например, виртуальные потоки):
+     * медленный слушатель не задерживает остальных и доставку модели (кроме политики BLOCK).
+     * При COALESCE_LATEST пачки склеиваются без потерь, при DROP_* лишние выбрасываются.
+     * Отписка — removeDataListener(l) с исходным слушателем.
+     * @return обёртка, через которую можно смотреть число выброшенных или склеенных пачек
+     */
+    public AsyncDataListener addDataListener(DataListener l, Executor executor, int capacity, OverflowPolicy policy) {
+        AsyncDataListener async = new AsyncDataListener(Objects.requireNonNull(l), executor, capacity, policy);
+        AsyncDataListener previous = asyncDataListeners.put(l, async);
+        if (previous != null) {
+            dataListeners.remove(previous);
+            previous.close();
+        }
+        addDataListener(async);
+        return async;
     }
 
     public void removeDataListener(DataListener l) {
+        AsyncDataListener async = asyncDataListeners.remove(l);
+        if (async != null) {
+            dataListeners.remove(async);
+            async.close();
+        }
         dataListeners.remove(l);
     }
 
     public void addEventListener(EventListListener l) {
-        eventListeners.add(Objects.requireNonNull(l));
-        // hot swap: сразу отправляем все существующие события
+        Objects.requireNonNull(l);
+        // hot swap: слушатель активируется в drain и сразу получает все уже доставленные события,
+        // поэтому снимок согласован с дельтами, стоящими в очереди до и после подписки
         System.out.println("addEventListener (as an EVENT listener): displaying full-copied events");
-        List<ClockEvent> snapshot;
-        synchronized (this) {
-            snapshot = new ArrayList<>(events);
+        synchronized (deltaModeLock) {
+            deltaMode = DELTAS_ALL; // до постановки в очередь: события после снимка придут дельтами
+            pending.add(Delta.subscribed(l));
         }
-        SwingUtilities.invokeLater(() -> {
-            for (ClockEvent e : snapshot) {
-                try { l.onEventAdded(e); } catch (Throwable ex) { ex.printStackTrace(); }
-            }
-        });
+        signal();
+    }
+
+    /**
+     * Подписать слушателя списка со своей ограниченной очередью на своём executor-е.
+     * При COALESCE_LATEST дельты сливаются без потерь — копия списка у слушателя остаётся верной.
+     * Отписка — removeEventListener(l) с исходным слушателем.
+     */
+    public AsyncEventListListener addEventListener(EventListListener l, Executor executor, int capacity,
+                                                   OverflowPolicy policy) {
+        AsyncEventListListener async = new AsyncEventListListener(Objects.requireNonNull(l), executor, capacity, policy);
+        AsyncEventListListener previous = asyncEventListeners.put(l, async);
+        if (previous != null) {
+            eventListeners.remove(previous);
+            enqueue(Delta.unsubscribed(previous));
+            previous.close();
+        }
+        addEventListener(async);
+        return async;
     }
 
     public void removeEventListener(EventListListener l) {
+        AsyncEventListListener async = asyncEventListeners.remove(l);
+        if (async != null) {
+            eventListeners.remove(async);
+            enqueue(Delta.unsubscribed(async)); // подписка обёртки может ещё стоять в очереди drain
+            async.close();
+        }
         eventListeners.remove(l);
+        enqueue(Delta.unsubscribed(l));
     }
 
     // ---------------- core model operations ----------------
     public long updateTimeFromStrategy() {
-        long ts = strategy.getCurrentTimeMillis();
-        notifyTimeUpdated(ts);
+        StrategyEpoch c = current;
+        long ts = c.strategy.getCurrentTimeMillis();
+        notifyTimeUpdated(ts, c.epoch);
         return ts;
     }
 
-    public synchronized ClockEvent addEvent(String message) {
-        long ts = strategy.getCurrentTimeMillis();
-        ClockEvent event = new ClockEvent(ts, message != null ? message : "");
+    public ClockEvent addEvent(String message) {
+        String text = message != null ? message : "";
+        long ts = current.strategy.getCurrentTimeMillis();
+        long seq = append(ts, text);
+        if (compactRepeats) {
+            // событие могло слиться с предыдущим — возвращаем серию целиком
+            ClockEvent[] run = new ClockEvent[1];
+            if (events.readRun(seq, (s, first, last, count, id) -> run[0] = new ClockEvent(s, first, last, count, text))) {
+                return run[0];
+            }
+        }
+        return new ClockEvent(seq, ts, text);
+    }
+
+    /**
+     * То же, что addEvent, но без материализации ClockEvent для вызывающего —
+     * для горячего пути тикера. Возвращает номер события в истории.
+     */
+    public long recordEvent(String message) {
+        String text = message != null ? message : "";
+        return append(current.strategy.getCurrentTimeMillis(), text);
+    }
+
+    private long append(long ts, String text) {
+        int messageId = messages.intern(text);
+        if (compactRepeats) {
+            synchronized (compactionLock) {
+                long last = events.head() - 1;
+                if (events.extend(last, ts, messageId, extendObserver)) {
+                    signalIfPending();
+                    return last;
+                }
+                return appendNew(ts, messageId);
+            }
+        }
+        return appendNew(ts, messageId);
+    }
 
-        ClockEvent removed = null;
-        if (events.size() >= maxEvents) removed = events.removeFirst();
-        events.addLast(event);
+    private long appendNew(long ts, int messageId) {
+        long seq = events.append(ts, messageId, appendObserver);
+        signalIfPending();
+        EventJournal j = journal;
+        if (j != null) {
+            // ошибка журнала не должна останавливать тикер
+            try { j.append(seq, ts, messageId); } catch (RuntimeException ex) { ex.printStackTrace(); }
+        }
+        for (FlowSubscription<?> s : flowSubscriptions) s.onEventAppended();
+        return seq;
+    }
 
-        final ClockEvent removedFinal = removed;
-        final ClockEvent addedFinal = event;
+    // вызывается производителем до публикации слота, поэтому дельта добавления
+    // всегда стоит в очереди раньше, чем дельта вытеснения/очистки этого же события.
+    // Задачу доставки ставит вызывающий уже после публикации: drain может ждать неопубликованные слоты
+    private void onEventAppended(long seq, long ts, int messageId,
+                                 long evictedSeq, long evictedTs, int evictedMessageId) {
+        if (evictedSeq >= 0) {
+            timeIndex.remove(evictedSeq, evictedTs);
+            metrics.recordEviction();
+        }
+        timeIndex.add(seq, ts, messageId);
+        int mode = deltaMode;
+        if (mode == DELTAS_NONE) return; // слушателей нет — ничего не выделяем
+        // вытесненное событие drain найдёт в delivered по номеру
+        pending.add(Delta.added(new ClockEvent(seq, ts, messages.message(messageId)),
+                mode == DELTAS_ALL ? evictedSeq : -1));
+    }
 
-        SwingUtilities.invokeLater(() -> {
-            if (removedFinal != null) notifyEventRemoved(removedFinal);
-            notifyEventAdded(addedFinal);
-            notifyDataListeners(addedFinal);
-        });
+    // серия продлена: вызывается до повторной публикации слота, так что дельта обновления
+    // стоит в очереди раньше дельты вытеснения этого события
+    private void onRunExtended(long seq, long firstTs, long lastTs, int count, int messageId) {
+        if (deltaMode != DELTAS_ALL) return; // продления видят только слушатели списка
+        pending.add(Delta.updated(new ClockEvent(seq, firstTs, lastTs, count, messages.message(messageId))));
+    }
 
-        return event;
+    /**
+     * Сжатие повторов: одинаковые сообщения подряд (например, "Tick") сливаются в одно событие
+     * со счётчиком и временем первого/последнего повтора. Вместо добавления и вытеснения
+     * слушатели списка получают onEventsExtended, DataListener-ы повторы не получают,
+     * а история в maxEvents хранит maxEvents разных событий, а не последние тики.
+     * Повторы не пишутся в журнал и не видны Flow-подписчикам и экспорту как отдельные события:
+     * там серия — одна запись со временем первого сообщения.
+     * В режиме сжатия добавления событий сериализуются одним замком.
+     */
+    public void setCompactRepeats(boolean compact) {
+        this.compactRepeats = compact;
     }
 
-    public synchronized void clearEvents() {
-        List<ClockEvent> removed;
-        synchronized (this) {
-            removed = new ArrayList<>(events);
-            events.clear();
+    public boolean isCompactRepeats() {
+        return compactRepeats;
+    }
+
+    public void clearEvents() {
+        if (compactRepeats) {
+            synchronized (compactionLock) {
+                clearAll();
+            }
+        } else {
+            clearAll();
+        }
+    }
+
+    private void clearAll() {
+        EventJournal j = journal;
+        if (j != null) {
+            try { j.appendClear(events.head()); } catch (RuntimeException ex) { ex.printStackTrace(); }
         }
-        SwingUtilities.invokeLater(() -> {
-            for (ClockEvent e : removed) notifyEventRemoved(e);
+        int removed = events.clear((seq, ts, id) -> {
+            timeIndex.remove(seq, ts);
+            if (deltaMode == DELTAS_ALL) pending.add(Delta.removed(seq));
         });
+        if (removed > 0) signalIfPending();
     }
 
+    /**
+     * Атомарная смена стратегии без остановки тикера: следующий тик уже читает новую стратегию.
+     * Смена режима доставляется UIListener-ам той же задачей доставки, что и время, а обновления времени
+     * от прежней стратегии, ещё не дошедшие до слушателей, выбрасываются.
+     */
     public synchronized void setStrategy(TimeStrategy newStrategy) {
-        this.strategy = Objects.requireNonNull(newStrategy);
-        SwingUtilities.invokeLater(() -> {
-            for (UIListener l : uiListeners) {
-                l.onModeChanged(strategy.getModeLabel());
-                l.onTimeUpdated(strategy.getCurrentTimeMillis());
+        current = new StrategyEpoch(Objects.requireNonNull(newStrategy), current.epoch + 1);
+        signal();
+    }
+
+    /** Номер текущей стратегии: растёт на каждый setStrategy. */
+    public long getStrategyEpoch() {
+        return current.epoch;
+    }
+
+    /**
+     * Подключить журнал событий. Вызывать при старте, до первого addEvent.
+     * Непустой журнал подключается только к новой модели: модель берёт его словарь сообщений
+     * и продолжает нумерацию после всех номеров в журнале.
+     * @param restore восстановить последние maxEvents событий из хвоста журнала;
+     *                слушатели, уже подписанные на модель, получат их как обычные добавления.
+     *                Без restore история начинается пустой, но номера журнала не переиспользуются
+     */
+    public void attachJournal(EventJournal journal, boolean restore) {
+        Objects.requireNonNull(journal);
+        if (journal.size() > 0) {
+            if (events.head() != 0 || messages.size() != 0) {
+                throw new IllegalStateException("Non-empty journal can only be attached to a fresh model");
             }
-        });
+            for (String text : journal.messages()) messages.intern(text);
+            // события возвращаются под журнальными номерами: курсоры Flow и экспорт, продолжающие по seq,
+            // не увидят повторов, а новые события нумеруются после всех, что есть в журнале
+            RestoredTail tail = new RestoredTail(restore ? maxEvents : 0);
+            long nextSeq = journal.replayTail(maxEvents, restore ? tail::add : (seq, ts, messageId) -> { });
+            events.restore(tail.seqs, tail.timestamps, tail.messageIds, tail.size, nextSeq, appendObserver);
+            signalIfPending();
+        }
+        journal.bindMessages(messages);
+        this.journal = journal;
+    }
+
+    /** Хвост журнала, упорядоченный по номерам (журнал хранит порядок записи). */
+    private static final class RestoredTail {
+        final long[] seqs;
+        final long[] timestamps;
+        final int[] messageIds;
+        int size;
+
+        RestoredTail(int capacity) {
+            seqs = new long[capacity];
+            timestamps = new long[capacity];
+            messageIds = new int[capacity];
+        }
+
+        // порядок записи почти совпадает с порядком номеров — вставка с конца, обычно без сдвигов
+        void add(long seq, long ts, int messageId) {
+            if (size == seqs.length) return;
+            int p = size;
+            while (p > 0 && seqs[p - 1] > seq) {
+                seqs[p] = seqs[p - 1];
+                timestamps[p] = timestamps[p - 1];
+                messageIds[p] = messageIds[p - 1];
+                p--;
+            }
+            seqs[p] = seq;
+            timestamps[p] = ts;
+            messageIds[p] = messageId;
+            size++;
+        }
+    }
+
+    // ---------------- Flow ----------------
+
+    /** Обновления времени как Flow.Publisher; сигналы — в ForkJoinPool.commonPool(). */
+    public Flow.Publisher<Long> timePublisher() {
+        return timePublisher(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Обновления времени с учётом request(n): пока подписчик не просит, значения сливаются
+     * до последнего. Первое значение — текущее время. Работает без AWT и без диспетчера модели.
+     */
+    public Flow.Publisher<Long> timePublisher(Executor executor) {
+        Objects.requireNonNull(executor);
+        return subscriber -> new FlowSubscription.Time(subscriber, executor, flowSubscriptions,
+                current.strategy.getCurrentTimeMillis()).start();
+    }
+
+    /** События с номерами от fromSeq как Flow.Publisher; сигналы — в ForkJoinPool.commonPool(). */
+    public Flow.Publisher<ClockEvent> eventPublisher(long fromSeq) {
+        return eventPublisher(fromSeq, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * События истории с номерами от fromSeq (0 — вся живая история), затем новые — строго в пределах request(n).
+     * Подписка — курсор по кольцевому буферу, модель ничего не буферизует за подписчика;
+     * если подписчик отстал больше чем на maxEvents, вытесненные события он пропустит.
+     */
+    public Flow.Publisher<ClockEvent> eventPublisher(long fromSeq, Executor executor) {
+        Objects.requireNonNull(executor);
+        return subscriber -> new FlowSubscription.Events(subscriber, executor, flowSubscriptions,
+                events, messages, fromSeq).start();
+    }
+
+    /** Номер, который получит следующее событие: eventPublisher(getNextSequence()) — только новые события. */
+    public long getNextSequence() {
+        return events.head();
+    }
+
+    // ---------------- запросы по времени ----------------
+
+    /**
+     * События с fromMillis <= timestamp <= toMillis — живой вид без копирования.
+     * Индекс обновляют сами производители, так что вид не ждёт доставки слушателям и работает без них.
+     */
+    public EventRange eventsBetween(long fromMillis, long toMillis) {
+        return EventRange.between(timeIndex, messages, fromMillis, toMillis);
+    }
+
+    /** Последние count событий строго раньше beforeMillis — живой вид без копирования. */
+    public EventRange lastEventsBefore(long beforeMillis, int count) {
+        return EventRange.lastBefore(timeIndex, messages, beforeMillis, count);
+    }
+
+    /** Снимок событий с fromMillis <= timestamp <= toMillis в примитивные массивы — вход для аналитики. */
+    public EventColumns snapshotEvents(long fromMillis, long toMillis) {
+        return eventsBetween(fromMillis, toMillis).snapshot();
+    }
+
+    /**
+     * Обойти живые события с номерами от fromSeq без материализации ClockEvent (экспорт, снимки).
+     * @return номер, с которого продолжать следующий обход
+     */
+    public long forEachEventFrom(long fromSeq, EventRingBuffer.EntryVisitor visitor) {
+        return events.forEachFrom(fromSeq, visitor);
+    }
+
+    /** Текст сообщения по id из EntryVisitor. */
+    public String getMessage(int messageId) {
+        return messages.message(messageId);
     }
 
-    public TimeStrategy getStrategy() { return this.strategy; }
+    public EventJournal getJournal() { return journal; }
+
+    /** Метрики конвейера уведомлений; для JMX — getMetrics().registerMBean(name). */
+    public ClockMetrics getMetrics() { return metrics; }
+
+    public TimeStrategy getStrategy() { return current.strategy; }
+
+    public Dispatcher getDispatcher() { return dispatcher; }
+
+    public int getMaxEvents() { return maxEvents; }
 
     // ---------------- notification helpers ----------------
-    private void notifyTimeUpdated(long ts) {
-        List<UIListener> snapshot = new ArrayList<>(uiListeners);
-        SwingUtilities.invokeLater(() -> {
-            for (UIListener l : snapshot) {
-                try { l.onTimeUpdated(ts); } catch (Throwable ex) { ex.printStackTrace(); }
+    private void notifyTimeUpdated(long ts, long epoch) {
+        for (FlowSubscription<?> s : flowSubscriptions) s.onTimeUpdated(ts);
+        pendingTime.set(new TimeSample(ts, epoch));
+        signal();
+    }
+
+    private void enqueue(Delta d) {
+        pending.add(d);
+        signal();
+    }
+
+    private void signalIfPending() {
+        if (!pending.isEmpty()) signal();
+    }
+
+    // одна задача в очереди диспетчера на все накопившиеся дельты
+    private void signal() {
+        if (wip.getAndIncrement() == 0) {
+            scheduleDrain();
+        }
+    }
+
+    private void scheduleDrain() {
+        drainScheduledNanos = System.nanoTime();
+        dispatcher.execute(drainTask);
+    }
+
+    private void drain() {
+        DispatchEvent event = new DispatchEvent();
+        event.begin();
+        long queueLag = System.nanoTime() - drainScheduledNanos;
+        metrics.recordDispatchLag(queueLag);
+
+        int missed = wip.get();
+        if (!flushPending()) {
+            wip.incrementAndGet(); // остались дельты — разберём следующей задачей
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.queueLag = queueLag;
+            event.dispatcher = dispatcher.getClass().getSimpleName();
+            event.commit();
+        }
+        if (wip.addAndGet(-missed) != 0) {
+            scheduleDrain();
+        }
+    }
+
+    /** @return true, если очередь разобрана полностью */
+    private boolean flushPending() {
+        StrategyEpoch c = current;
+        if (c.epoch != deliveredEpoch) {
+            deliveredEpoch = c.epoch;
+            String label = c.strategy.getModeLabel();
+            long ts = c.strategy.getCurrentTimeMillis();
+            for (UIListener l : uiListeners) {
+                deliver(l, () -> {
+                    l.onModeChanged(label);
+                    l.onTimeUpdated(ts);
+                });
             }
-        });
+        }
+        TimeSample sample = pendingTime.getAndSet(null);
+        if (sample != null) {
+            if (sample.epoch != c.epoch) {
+                metrics.recordStaleUpdate(); // время от прежней стратегии
+            } else {
+                for (UIListener l : uiListeners) {
+                    // диспетчер может доставить позже — к тому моменту стратегия могла смениться ещё раз
+                    deliver(l, () -> {
+                        if (current.epoch == sample.epoch) l.onTimeUpdated(sample.millis);
+                        else metrics.recordStaleUpdate();
+                    });
+                }
+            }
+        }
+
+        int processed = 0;
+        Delta d;
+        while (processed < MAX_DELTAS_PER_FLUSH && (d = pending.poll()) != null) {
+            processed++;
+            switch (d.kind) {
+                case Delta.ADDED:
+                    batchAdd(d.event, d.seq);
+                    break;
+                case Delta.REMOVED:
+                    if (listMode) batchRemove(d.seq);
+                    break;
+                case Delta.UPDATED:
+                    if (listMode) batchUpdate(d.event);
+                    break;
+                case Delta.SUBSCRIBED:
+                    deliverBatch();
+                    subscribe(d.listener);
+                    break;
+                case Delta.UNSUBSCRIBED:
+                    deliverBatch();
+                    eventListeners.remove(d.listener);
+                    if (eventListeners.isEmpty()) {
+                        listMode = false;
+                        delivered.clear();
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        deliverBatch();
+        if (!pending.isEmpty()) return false;
+        lowerDeltaMode();
+        return true;
+    }
+
+    // слушатели ушли — производители перестают класть дельты; подписка поднимает режим под тем же замком,
+    // а её дельта ещё в очереди, поэтому при непустой очереди режим не трогаем
+    private void lowerDeltaMode() {
+        int mode = wantedDeltaMode();
+        if (mode >= deltaMode) return;
+        synchronized (deltaModeLock) {
+            if (pending.isEmpty()) deltaMode = Math.min(deltaMode, wantedDeltaMode());
+        }
+    }
+
+    private int wantedDeltaMode() {
+        if (!eventListeners.isEmpty()) return DELTAS_ALL;
+        return dataListeners.isEmpty() ? DELTAS_NONE : DELTAS_DATA;
+    }
+
+    private void batchAdd(ClockEvent e, long evictedSeq) {
+        if (listMode) {
+            if (evictedSeq >= 0) batchRemove(evictedSeq);
+            // события до снимка уже в delivered, если ещё живы
+            if (e.getSequence() >= snapshotSeq) {
+                delivered.addLast(e);
+                batchAdded.put(e);
+            }
+        }
+        batchData.add(e);
     }
 
-    private void notifyEventAdded(ClockEvent e) {
+    private void batchRemove(long seq) {
+        ClockEvent e = removeDelivered(seq);
+        if (e == null) return; // в снимок не попало — удалено раньше
+        // событие появилось и исчезло внутри одного батча — слушателям списка его не показываем
+        if (batchAdded.remove(seq) == null) batchRemoved.add(e);
+        batchUpdated.remove(seq);
+    }
+
+    // вытесняется всегда самое старое событие; поиск по всему списку — только для очистки
+    private ClockEvent removeDelivered(long seq) {
+        ClockEvent first = delivered.peekFirst();
+        if (first != null && first.getSequence() == seq) return delivered.pollFirst();
+        for (Iterator<ClockEvent> it = delivered.iterator(); it.hasNext(); ) {
+            ClockEvent e = it.next();
+            if (e.getSequence() == seq) {
+                it.remove();
+                return e;
+            }
+        }
+        return null;
+    }
+
+    // продлевается всегда самое новое живое событие: оно последнее в delivered (и в batchData, если добавлено
+    // в этом батче); если последним стоит другое, серию уже вытеснили — продление не показываем.
+    // Продление, уже учтённое снимком кольца, тоже пропускаем
+    private void batchUpdate(ClockEvent e) {
+        ClockEvent last = delivered.peekLast();
+        if (!e.equals(last) || e.getCount() <= last.getCount()) return;
+        delivered.pollLast();
+        delivered.addLast(e);
+        if (batchAdded.replace(e)) {
+            // добавлено в этом же батче — слушатели сразу получат серию
+            int k = batchData.size() - 1;
+            if (k >= 0 && e.equals(batchData.get(k))) batchData.set(k, e);
+            return;
+        }
+        batchUpdated.put(e);
+    }
+
+    private void subscribe(EventListListener l) {
+        if (eventListeners.contains(l)) return;
+        if (!listMode) {
+            snapshotHistory();
+            listMode = true;
+        }
+        eventListeners.add(l);
+        if (delivered.isEmpty()) return;
+        List<ClockEvent> snapshot = List.copyOf(delivered);
+        deliver(l, () -> l.onEventsAdded(snapshot));
+    }
+
+    /**
+     * Первый слушатель списка: пока его не было, производители не клали дельты, поэтому delivered
+     * собирается заново из кольца. Режим DELTAS_ALL поднят до постановки подписки в очередь, значит
+     * все события с номерами от snapshotSeq придут дельтами; события ниже ждём до публикации и берём из кольца.
+     */
+    private void snapshotHistory() {
+        delivered.clear();
+        EventRingBuffer.RunVisitor collect = (seq, first, last, count, id) ->
+                delivered.addLast(new ClockEvent(seq, first, last, count, messages.message(id)));
+        long to = events.head();
+        long seq = events.forEachRunFrom(0, to, collect);
+        for (int spins = 0; seq < to; spins++) {
+            // производитель получил номер, но ещё не опубликовал запись — обычно доли микросекунды
+            if (spins < 64) Thread.onSpinWait();
+            else if (spins < 128) Thread.yield();
+            else LockSupport.parkNanos(1_000L);
+            seq = events.forEachRunFrom(seq, to, collect);
+        }
+        snapshotSeq = to;
+    }
+
+    private void deliverBatch() {
+        if (!batchRemoved.isEmpty()) {
+            notifyEventsRemoved(List.copyOf(batchRemoved));
+            batchRemoved.clear();
+        }
+        if (!batchAdded.isEmpty()) {
+            notifyEventsAdded(batchAdded.takeAll());
+        }
+        if (!batchUpdated.isEmpty()) {
+            notifyEventsExtended(batchUpdated.takeAll());
+        }
+        if (!batchData.isEmpty()) {
+            notifyDataListeners(List.copyOf(batchData));
+            batchData.clear();
+        }
+    }
+
+    private void notifyEventsExtended(List<ClockEvent> batch) {
         for (EventListListener l : eventListeners) {
-            try { l.onEventAdded(e); } catch (Throwable ex) { ex.printStackTrace(); }
+            deliver(l, () -> l.onEventsExtended(batch));
         }
     }
 
-    private void notifyEventRemoved(ClockEvent e) {
+    private void notifyEventsAdded(List<ClockEvent> batch) {
         for (EventListListener l : eventListeners) {
-            try { l.onEventRemoved(e); } catch (Throwable ex) { ex.printStackTrace(); }
+            deliver(l, () -> l.onEventsAdded(batch));
         }
     }
 
-    private void notifyDataListeners(ClockEvent e) {
+    private void notifyEventsRemoved(List<ClockEvent> batch) {
+        for (EventListListener l : eventListeners) {
+            deliver(l, () -> l.onEventsRemoved(batch));
+        }
+    }
+
+    private void notifyDataListeners(List<ClockEvent> batch) {
         for (DataListener dl : dataListeners) {
-            try { dl.onNewValue(e.getTimestampMillis(), e.getMessage()); } catch (Throwable ex) { ex.printStackTrace(); }
+            deliver(dl, () -> dl.onNewValues(batch));
+        }
+    }
+
+    private void deliver(Object listener, Runnable callback) {
+        try {
+            dispatcher.deliver(listener, () -> invoke(listener, callback));
+        } catch (Throwable ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    // выполняется в потоке, который диспетчер выбрал для слушателя: меряем сам вызов, а не постановку в очередь
+    private void invoke(Object listener, Runnable callback) {
+        ListenerCallbackEvent event = new ListenerCallbackEvent();
+        event.begin();
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            callback.run();
+        } catch (Throwable ex) {
+            failed = true;
+            metrics.recordListenerException();
+            ListenerFailureEvent failure = new ListenerFailureEvent();
+            if (failure.isEnabled()) {
+                failure.listenerClass = listener.getClass();
+                failure.exceptionClass = ex.getClass();
+                failure.message = ex.getMessage();
+                failure.commit();
+            }
+            ex.printStackTrace();
+        } finally {
+            metrics.recordCallback(System.nanoTime() - start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.listenerClass = listener.getClass();
+                event.failed = failed;
+                event.commit();
+            }
         }
     }
+
+    private static final class StrategyEpoch {
+        final TimeStrategy strategy;
+        final long epoch;
+
+        StrategyEpoch(TimeStrategy strategy, long epoch) {
+            this.strategy = strategy;
+            this.epoch = epoch;
+        }
+    }
+
+    /** Последнее время для UI с эпохой стратегии, от которой оно получено. */
+    private static final class TimeSample {
+        final long millis;
+        final long epoch;
+
+        TimeSample(long millis, long epoch) {
+            this.millis = millis;
+            this.epoch = epoch;
+        }
+    }
+
+    /**
+     * События батча по номерам. Номера в батче плотные и растут (добавления идут почти подряд,
+     * продлевается всегда последнее событие), поэтому вместо Map<Long, ClockEvent> — массив
+     * со смещением от наименьшего номера: ни узлов, ни Long на событие. Отдаются по возрастанию номеров.
+     */
+    private static final class SeqBatch {
+        private ClockEvent[] slots = new ClockEvent[64];
+        private long base;  // номер события в slots[0]
+        private int span;   // занятая часть slots: номера [base, base + span)
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void put(ClockEvent e) {
+            long seq = e.getSequence();
+            if (span == 0) {
+                base = seq;
+            } else if (seq < base) {
+                // производители публикуют почти по порядку — сдвиг на пару позиций
+                int shift = Math.toIntExact(base - seq);
+                ensureCapacity(span + shift);
+                System.arraycopy(slots, 0, slots, shift, span);
+                Arrays.fill(slots, 0, shift, null);
+                span += shift;
+                base = seq;
+            }
+            int i = Math.toIntExact(seq - base);
+            if (i >= span) {
+                ensureCapacity(i + 1);
+                span = i + 1;
+            }
+            if (slots[i] == null) size++;
+            slots[i] = e;
+        }
+
+        /** Заменить событие с тем же номером, если оно в батче. */
+        boolean replace(ClockEvent e) {
+            int i = indexOf(e.getSequence());
+            if (i < 0 || slots[i] == null) return false;
+            slots[i] = e;
+            return true;
+        }
+
+        ClockEvent remove(long seq) {
+            int i = indexOf(seq);
+            if (i < 0) return null;
+            ClockEvent e = slots[i];
+            if (e != null) {
+                slots[i] = null;
+                size--;
+            }
+            return e;
+        }
+
+        /** Все события по возрастанию номеров; батч становится пустым. */
+        List<ClockEvent> takeAll() {
+            ClockEvent[] out = new ClockEvent[size];
+            int n = 0;
+            for (int i = 0; i < span; i++) {
+                if (slots[i] != null) {
+                    out[n++] = slots[i];
+                    slots[i] = null;
+                }
+            }
+            span = 0;
+            size = 0;
+            return Collections.unmodifiableList(Arrays.asList(out));
+        }
+
+        private int indexOf(long seq) {
+            long i = seq - base;
+            return i >= 0 && i < span ? (int) i : -1;
+        }
+
+        private void ensureCapacity(int n) {
+            if (n > slots.length) slots = Arrays.copyOf(slots, Math.max(n, slots.length * 2));
+        }
+    }
+
+    /** Элемент очереди уведомлений; порядок в очереди = порядок доставки. */
+    private static final class Delta {
+        static final int ADDED = 0;
+        static final int REMOVED = 1;
+        static final int SUBSCRIBED = 2;
+        static final int UNSUBSCRIBED = 3;
+        static final int UPDATED = 4;
+
+        final int kind;
+        final ClockEvent event;
+        final long seq; // ADDED — номер вытесненного события (-1 — нет), REMOVED — номер удалённого
+        final EventListListener listener;
+
+        private Delta(int kind, ClockEvent event, long seq, EventListListener listener) {
+            this.kind = kind;
+            this.event = event;
+            this.seq = seq;
+            this.listener = listener;
+        }
+
+        static Delta added(ClockEvent e, long evictedSeq) { return new Delta(ADDED, e, evictedSeq, null); }
+        static Delta removed(long seq) { return new Delta(REMOVED, null, seq, null); }
+        static Delta updated(ClockEvent e) { return new Delta(UPDATED, e, -1, null); }
+        static Delta subscribed(EventListListener l) { return new Delta(SUBSCRIBED, null, -1, l); }
+        static Delta unsubscribed(EventListListener l) { return new Delta(UNSUBSCRIBED, null, -1, l); }
+    }
+
     public void startStrategy() {
         synchronized (this) {
-            strategy.start();
+            current.strategy.start();
         }
     }
 
     public void stopStrategy() {
         synchronized (this) {
-            strategy.stop();
+            current.strategy.stop();
         }
     }
 
     public void resetStrategy() {
         synchronized (this) {
-            strategy.reset();
+            current.strategy.reset();
         }
     }
 
@@ -0,0 +1,19 @@
+package com.example.model;
+
+/**
+ * Источник времени для стратегий. Подменяется через фабрику стратегий:
+ * системные часы, кэшированные "грубые" часы или виртуальное время для тестов и бенчмарков.
+ */
+public interface ClockSource {
+
+    /** Настенное время, epoch milli. */
+    long currentTimeMillis();
+
+    /** Монотонное время для измерения интервалов, нс. */
+    long nanoTime();
+
+    /** Обычные System.currentTimeMillis()/System.nanoTime(). */
+    static ClockSource system() {
+        return SystemClockSource.INSTANCE;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.model;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Кэшированные часы: один фоновый поток раз в resolution обновляет оба значения,
+ * читатели получают их одним volatile-чтением без системного вызова.
+ * Точность — не лучше resolution; для отрисовки стрелок и меток этого достаточно.
+ */
+public final class CoarseClockSource implements ClockSource, AutoCloseable {
+
+    private final long resolutionNanos;
+    private final Thread updater;
+    private volatile long millis = System.currentTimeMillis();
+    private volatile long nanos = System.nanoTime();
+    private volatile boolean running = true;
+
+    public CoarseClockSource(long resolution, TimeUnit unit) {
+        this.resolutionNanos = Math.max(TimeUnit.MICROSECONDS.toNanos(100), unit.toNanos(resolution));
+        this.updater = new Thread(this::update, "clock-coarse-source");
+        this.updater.setDaemon(true);
+        this.updater.start();
+    }
+
+    private void update() {
+        while (running) {
+            millis = System.currentTimeMillis();
+            nanos = System.nanoTime();
+            LockSupport.parkNanos(this, resolutionNanos);
+        }
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return millis;
+    }
+
+    @Override
+    public long nanoTime() {
+        return nanos;
+    }
+
+    /** Остановить фоновый поток; значения замирают на последнем обновлении. */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(updater);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.model;
+
+import com.example.format.ClockTimeFormatter;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Обратный отсчёт: getCurrentTimeMillis — сколько осталось (не меньше нуля).
+ * Состояние — неизменяемый снимок в AtomicReference, как у секундомера.
+ * Сам отсчёт ничего не «стреляет»: старт и остановка сообщаются CountdownListener-у
+ * (например, AlarmService.bindCountdown ставит будильник на момент окончания).
+ */
+public class CountdownStrategy implements TimeStrategy {
+
+    /**
+     * Отсчёт запущен или остановлен. Передаётся остаток, а не момент окончания по часам стратегии:
+     * получатель откладывает его от своих часов, так что часы стратегии и получателя могут различаться.
+     */
+    @FunctionalInterface
+    public interface CountdownListener {
+        /** @param remainingMillis сколько осталось до нуля у запущенного отсчёта или -1, если отсчёт не идёт */
+        void onCountdownChanged(long remainingMillis);
+    }
+
+    private static final class State {
+        final boolean running;
+        final long baseNano;           // момент последнего старта в clock.nanoTime()
+        final long remainingAtBaseNano;
+
+        State(boolean running, long baseNano, long remainingAtBaseNano) {
+            this.running = running;
+            this.baseNano = baseNano;
+            this.remainingAtBaseNano = remainingAtBaseNano;
+        }
+
+        long remainingNano(long nowNano) {
+            long r = running ? remainingAtBaseNano - (nowNano - baseNano) : remainingAtBaseNano;
+            return Math.max(0, r);
+        }
+    }
+
+    private final ClockSource clock;
+    private final AtomicReference<State> state;
+    private volatile long durationMillis;
+    private volatile CountdownListener countdownListener;
+    // смена состояния и уведомление о ней — под одним замком, чтобы уведомления шли в порядке смен;
+    // чтение остатка замок не берёт
+    private final Object transitionLock = new Object();
+
+    public CountdownStrategy(long durationMillis) {
+        this(durationMillis, ClockSource.system());
+    }
+
+    public CountdownStrategy(long durationMillis, ClockSource clock) {
+        this.clock = clock;
+        this.durationMillis = Math.max(0, durationMillis);
+        this.state = new AtomicReference<>(new State(false, 0, this.durationMillis * 1_000_000L));
+    }
+
+    public void setCountdownListener(CountdownListener listener) {
+        this.countdownListener = listener;
+    }
+
+    @Override
+    public long getCurrentTimeMillis() {
+        return getRemainingMillis();
+    }
+
+    public long getRemainingMillis() {
+        // вверх до миллисекунды: ноль показываем только когда отсчёт действительно закончился
+        return (state.get().remainingNano(clock.nanoTime()) + 999_999L) / 1_000_000L;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public boolean isExpired() {
+        return state.get().remainingNano(clock.nanoTime()) == 0;
+    }
+
+    /** Новая длительность; вступает в силу при reset(). */
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = Math.max(0, durationMillis);
+    }
+
+    @Override
+    public String getDisplayTime() {
+        return ClockTimeFormatter.formatElapsed(getRemainingMillis());
+    }
+
+    @Override
+    public void appendDisplayTime(StringBuilder sink) {
+        ClockTimeFormatter.formatElapsed(getRemainingMillis(), sink);
+    }
+
+    @Override
+    public void start() {
+        synchronized (transitionLock) {
+            State s = state.get();
+            if (s.running || s.remainingAtBaseNano == 0) return;
+            state.set(new State(true, clock.nanoTime(), s.remainingAtBaseNano));
+            notifyListener((s.remainingAtBaseNano + 999_999L) / 1_000_000L);
+        }
+    }
+
+    @Override
+    public void stop() {
+        synchronized (transitionLock) {
+            State s = state.get();
+            if (!s.running) return;
+            state.set(new State(false, 0, s.remainingNano(clock.nanoTime())));
+            notifyListener(-1);
+        }
+    }
+
+    @Override
+    public void reset() {
+        synchronized (transitionLock) {
+            State previous = state.getAndSet(new State(false, 0, durationMillis * 1_000_000L));
+            if (previous.running) notifyListener(-1);
+        }
+    }
+
+    private void notifyListener(long remainingMillis) {
+        CountdownListener l = countdownListener;
+        if (l != null) l.onCountdownChanged(remainingMillis);
+    }
+
+    @Override
+    public String getModeLabel() {
+        return "Таймер";
+    }
+}
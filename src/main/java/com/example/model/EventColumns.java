@@ -0,0 +1,57 @@
+package com.example.model;
+
+/**
+ * Неизменяемый снимок событий в примитивных массивах, по возрастанию (timestamp, seq) —
+ * результат EventRange.snapshot() / ClockModel.snapshotEvents. Массивы не копируются при чтении,
+ * поэтому их можно обходить параллельно по диапазонам индексов.
+ *
+ * Серия сжатых повторов (setCompactRepeats) представлена одним событием — своим первым моментом.
+ */
+public final class EventColumns {
+
+    private final long[] sequences;
+    private final long[] timestamps;
+    private final int[] messageIds;
+    private final MessageTable messages;
+    private final int messageIdBound;
+
+    EventColumns(long[] sequences, long[] timestamps, int[] messageIds, MessageTable messages) {
+        this.sequences = sequences;
+        this.timestamps = timestamps;
+        this.messageIds = messageIds;
+        this.messages = messages;
+        // таблица только растёт: все id снимка меньше её текущего размера
+        this.messageIdBound = messages.size();
+    }
+
+    public int size() {
+        return timestamps.length;
+    }
+
+    public long sequenceAt(int i) {
+        return sequences[i];
+    }
+
+    public long timestampAt(int i) {
+        return timestamps[i];
+    }
+
+    public int messageIdAt(int i) {
+        return messageIds[i];
+    }
+
+    /** Все id сообщений снимка меньше этого значения — размер для счётчиков, индексируемых id. */
+    public int messageIdBound() {
+        return messageIdBound;
+    }
+
+    public String message(int messageId) {
+        return messages.message(messageId);
+    }
+
+    /** Время от первого до последнего события, мс (0 для пустого снимка или одного события). */
+    public long spanMillis() {
+        int n = timestamps.length;
+        return n < 2 ? 0 : timestamps[n - 1] - timestamps[0];
+    }
+}
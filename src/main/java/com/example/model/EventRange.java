@@ -0,0 +1,166 @@
+package com.example.model;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Живой вид на диапазон истории событий — результат запросов ClockModel.eventsBetween/lastEventsBefore.
+ *
+ * Ничего не копирует: границы ищутся бинарным поиском по EventTimeIndex при обращении
+ * и кэшируются до следующего изменения индекса. Вид слабо согласован, как подсписки
+ * concurrent-коллекций: между вызовами size() и get() история может сдвинуться.
+ * forEach(EntryVisitor) обходит диапазон целиком согласованно и без аллокаций.
+ */
+public final class EventRange extends AbstractList<ClockEvent> implements RandomAccess {
+
+    private static final int BETWEEN = 0;
+    private static final int LAST_BEFORE = 1;
+
+    private final EventTimeIndex index;
+    private final MessageTable messages;
+    private final int kind;
+    private final long a;
+    private final long b;
+    private volatile Bounds cached;
+
+    private static final class Bounds {
+        final long version;
+        final int lo;
+        final int hi;
+
+        Bounds(long version, int lo, int hi) {
+            this.version = version;
+            this.lo = lo;
+            this.hi = hi;
+        }
+    }
+
+    private EventRange(EventTimeIndex index, MessageTable messages, int kind, long a, long b) {
+        this.index = index;
+        this.messages = messages;
+        this.kind = kind;
+        this.a = a;
+        this.b = b;
+    }
+
+    /** События с fromMillis <= timestamp <= toMillis. */
+    static EventRange between(EventTimeIndex index, MessageTable messages, long fromMillis, long toMillis) {
+        return new EventRange(index, messages, BETWEEN, fromMillis, toMillis);
+    }
+
+    /** Последние count событий с timestamp < beforeMillis. */
+    static EventRange lastBefore(EventTimeIndex index, MessageTable messages, long beforeMillis, int count) {
+        return new EventRange(index, messages, LAST_BEFORE, beforeMillis, Math.max(0, count));
+    }
+
+    // вызывать под stamp индекса
+    private Bounds bounds() {
+        long version = index.version();
+        Bounds c = cached;
+        if (c != null && c.version == version) return c;
+        int lo;
+        int hi;
+        if (kind == BETWEEN) {
+            lo = index.lowerBound(a, Long.MIN_VALUE);
+            hi = Math.max(lo, index.lowerBound(b, Long.MAX_VALUE));
+        } else {
+            hi = index.lowerBound(a, Long.MIN_VALUE);
+            lo = (int) Math.max(0, hi - b);
+        }
+        return new Bounds(version, lo, hi);
+    }
+
+    @Override
+    public int size() {
+        StampedLock lock = index.lock;
+        long stamp = lock.tryOptimisticRead();
+        Bounds bs = bounds();
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                bs = bounds();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        cached = bs;
+        return bs.hi - bs.lo;
+    }
+
+    @Override
+    public ClockEvent get(int i) {
+        StampedLock lock = index.lock;
+        long stamp = lock.tryOptimisticRead();
+        Bounds bs = bounds();
+        int p = bs.lo + i;
+        boolean inRange = i >= 0 && p < bs.hi;
+        long seq = inRange ? index.sequenceAt(p) : 0;
+        long ts = inRange ? index.timestampAt(p) : 0;
+        int id = inRange ? index.messageIdAt(p) : 0;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                bs = bounds();
+                p = bs.lo + i;
+                inRange = i >= 0 && p < bs.hi;
+                if (inRange) {
+                    seq = index.sequenceAt(p);
+                    ts = index.timestampAt(p);
+                    id = index.messageIdAt(p);
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        cached = bs;
+        if (!inRange) throw new IndexOutOfBoundsException("Index " + i + " out of range, size " + (bs.hi - bs.lo));
+        return new ClockEvent(seq, ts, messages.message(id));
+    }
+
+    /**
+     * Обойти диапазон под read lock: содержимое не меняется во время обхода.
+     * Посетитель должен быть коротким — добавление событий в модель ждёт окончания обхода.
+     * @return сколько событий обойдено
+     */
+    public int forEach(EventRingBuffer.EntryVisitor visitor) {
+        StampedLock lock = index.lock;
+        long stamp = lock.readLock();
+        try {
+            Bounds bs = bounds();
+            cached = bs;
+            for (int p = bs.lo; p < bs.hi; p++) {
+                visitor.visit(index.sequenceAt(p), index.timestampAt(p), index.messageIdAt(p));
+            }
+            return bs.hi - bs.lo;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Снимок диапазона в примитивные массивы (для аналитики по большим историям):
+     * копирование блоками под read lock, без ClockEvent на каждое событие.
+     */
+    public EventColumns snapshot() {
+        StampedLock lock = index.lock;
+        long stamp = lock.readLock();
+        try {
+            Bounds bs = bounds();
+            cached = bs;
+            int n = bs.hi - bs.lo;
+            long[] seqs = new long[n];
+            long[] ts = new long[n];
+            int[] ids = new int[n];
+            index.copyTo(bs.lo, bs.hi, seqs, ts, ids);
+            return new EventColumns(seqs, ts, ids, messages);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /** Текст сообщения по id из forEach. */
+    public String message(int messageId) {
+        return messages.message(messageId);
+    }
+}
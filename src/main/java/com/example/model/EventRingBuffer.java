@@ -0,0 +1,304 @@
+package com.example.model;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lock-free кольцевой буфер истории событий фиксированной ёмкости (multi-producer).
+ *
+ * Данные хранятся в примитивных массивах: timestamp в long[], сообщение — id из MessageTable.
+ * Каждый слот защищён своим словом состояния (seqlock): в слове закодированы номер записи
+ * и состояние слота (запись / живое событие / удалено через clear). Производитель получает
+ * номер через head.getAndIncrement(), захватывает слот CAS-ом и публикует запись release-записью,
+ * читатели проверяют слово до и после чтения данных.
+ *
+ * Для сжатия повторов запись может быть серией: count одинаковых сообщений подряд,
+ * timestamp — время первого, lastTimestamp — последнего. Обычная запись — серия из одного.
+ */
+public final class EventRingBuffer {
+
+    /** Посетитель записей буфера — примитивные аргументы, без аллокаций. */
+    @FunctionalInterface
+    public interface EntryVisitor {
+        void visit(long seq, long timestampMillis, int messageId);
+    }
+
+    /** Посетитель записи вместе с длиной серии. */
+    @FunctionalInterface
+    public interface RunVisitor {
+        void visit(long seq, long firstTimestampMillis, long lastTimestampMillis, int count, int messageId);
+    }
+
+    /**
+     * Вызывается производителем после записи данных, но до публикации слота.
+     * evictedSeq = -1, если добавление никого не вытеснило.
+     */
+    @FunctionalInterface
+    public interface AppendObserver {
+        void beforePublish(long seq, long timestampMillis, int messageId,
+                           long evictedSeq, long evictedTimestampMillis, int evictedMessageId);
+    }
+
+    private static final long EMPTY = 0;
+    private static final int WRITING = 1;
+    private static final int LIVE = 2;
+    private static final int CLEARED = 3;
+
+    private final int capacity;
+    private final long[] timestamps;
+    private final int[] messageIds;
+    private final long[] lastTimestamps;
+    private final int[] counts;
+    private final AtomicIntegerArray runVersions; // seqlock серии: нечётное — extend пишет count/lastTimestamp
+    private final AtomicLongArray states;
+    private final AtomicLong head = new AtomicLong();
+
+    public EventRingBuffer(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.timestamps = new long[this.capacity];
+        this.messageIds = new int[this.capacity];
+        this.lastTimestamps = new long[this.capacity];
+        this.counts = new int[this.capacity];
+        this.runVersions = new AtomicIntegerArray(this.capacity);
+        this.states = new AtomicLongArray(this.capacity);
+    }
+
+    private static long word(long seq, int state) {
+        return ((seq + 1) << 2) | state;
+    }
+
+    private int slot(long seq) {
+        return (int) (seq % capacity);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /** Номер, который получит следующее событие. */
+    public long head() {
+        return head.get();
+    }
+
+    /**
+     * Восстановить записи под их прежними номерами — только для нового, ещё пустого буфера (восстановление из журнала).
+     * seqs строго по возрастанию, все меньше nextSeq. В кольце остаются номера из последних capacity перед nextSeq;
+     * номера окна без записи (дыры журнала, очищенные) помечаются удалёнными, чтобы обход их пропускал.
+     * observer вызывается для каждой восстановленной записи, как в append (без вытеснений).
+     */
+    public void restore(long[] seqs, long[] timestampsMillis, int[] ids, int n, long nextSeq, AppendObserver observer) {
+        if (!head.compareAndSet(0, nextSeq)) {
+            throw new IllegalStateException("Ring buffer already in use, head=" + head.get());
+        }
+        long from = Math.max(0, nextSeq - capacity);
+        for (long seq = from; seq < nextSeq; seq++) {
+            states.set(slot(seq), word(seq, CLEARED));
+        }
+        for (int i = 0; i < n; i++) {
+            long seq = seqs[i];
+            if (seq < from) continue; // вытеснено бы более новыми
+            int slot = slot(seq);
+            timestamps[slot] = timestampsMillis[i];
+            messageIds[slot] = ids[i];
+            lastTimestamps[slot] = timestampsMillis[i];
+            counts[slot] = 1;
+            try {
+                if (observer != null) observer.beforePublish(seq, timestampsMillis[i], ids[i], -1, 0, -1);
+            } finally {
+                states.set(slot, word(seq, LIVE));
+            }
+        }
+    }
+
+    public long append(long timestampMillis, int messageId, AppendObserver observer) {
+        long seq = head.getAndIncrement();
+        int slot = slot(seq);
+        long prevSeq = seq - capacity;
+        long prevLive = word(prevSeq, LIVE);
+        long prevCleared = word(prevSeq, CLEARED);
+
+        long evictedSeq = -1;
+        long evictedTs = 0;
+        int evictedId = -1;
+        for (int spins = 0; ; spins++) {
+            long w = states.get(slot);
+            // пустой слот свободен только для первого круга: иначе его ещё не занял seq - capacity,
+            // и, заняв слот раньше, мы бы оставили того ждать вечно
+            if ((w == EMPTY && prevSeq < 0) || w == prevLive || w == prevCleared) {
+                if (states.compareAndSet(slot, w, word(seq, WRITING))) {
+                    if (w == prevLive) {
+                        evictedSeq = prevSeq;
+                        evictedTs = timestamps[slot];
+                        evictedId = messageIds[slot];
+                    }
+                    break;
+                }
+            } else {
+                // предыдущий владелец слота (seq - capacity) ещё не закончил запись
+                if (spins < 64) Thread.onSpinWait();
+                else if (spins < 128) Thread.yield();
+                else LockSupport.parkNanos(1_000L);
+            }
+        }
+
+        timestamps[slot] = timestampMillis;
+        messageIds[slot] = messageId;
+        lastTimestamps[slot] = timestampMillis;
+        counts[slot] = 1;
+        try {
+            if (observer != null) {
+                observer.beforePublish(seq, timestampMillis, messageId, evictedSeq, evictedTs, evictedId);
+            }
+        } finally {
+            states.set(slot, word(seq, LIVE));
+        }
+        return seq;
+    }
+
+    /**
+     * Продлить живую запись seq ещё одним таким же сообщением: count + 1, lastTimestamp = timestampMillis.
+     * Слот на время изменения снова переводится в WRITING, так что читатели видят серию целиком.
+     * Вызывающий сам исключает гонку с append/clear по этой записи (ClockModel — своим замком сжатия).
+     * observer вызывается до повторной публикации, как в append.
+     * @return false, если запись уже не жива или в ней другое сообщение
+     */
+    public boolean extend(long seq, long timestampMillis, int messageId, RunVisitor observer) {
+        if (seq < 0) return false;
+        int slot = slot(seq);
+        long live = word(seq, LIVE);
+        if (!states.compareAndSet(slot, live, word(seq, WRITING))) return false;
+        try {
+            if (messageIds[slot] != messageId || counts[slot] == Integer.MAX_VALUE) return false;
+            runVersions.getAndIncrement(slot);
+            int count = ++counts[slot];
+            lastTimestamps[slot] = Math.max(lastTimestamps[slot], timestampMillis);
+            runVersions.getAndIncrement(slot);
+            if (observer != null) observer.visit(seq, timestamps[slot], lastTimestamps[slot], count, messageId);
+            return true;
+        } finally {
+            states.set(slot, live);
+        }
+    }
+
+    /**
+     * Прочитать запись seq вместе с длиной серии, если она ещё жива.
+     * @return true, если visitor был вызван
+     */
+    public boolean readRun(long seq, RunVisitor visitor) {
+        if (seq < 0) return false;
+        int slot = slot(seq);
+        long live = word(seq, LIVE);
+        long ts;
+        long lastTs;
+        int count;
+        int id;
+        int version;
+        do {
+            if (states.get(slot) != live) return false;
+            version = runVersions.get(slot);
+            ts = timestamps[slot];
+            lastTs = lastTimestamps[slot];
+            count = counts[slot];
+            id = messageIds[slot];
+            VarHandle.loadLoadFence();
+            if (states.get(slot) != live) return false;
+        } while ((version & 1) != 0 || runVersions.get(slot) != version);
+        visitor.visit(seq, ts, lastTs, count, id);
+        return true;
+    }
+
+    /**
+     * Прочитать запись seq, если она ещё жива.
+     * @return true, если visitor был вызван
+     */
+    public boolean read(long seq, EntryVisitor visitor) {
+        if (seq < 0) return false;
+        int slot = slot(seq);
+        long live = word(seq, LIVE);
+        if (states.get(slot) != live) return false;
+        long ts = timestamps[slot];
+        int id = messageIds[slot];
+        VarHandle.loadLoadFence();
+        if (states.get(slot) != live) return false;
+        visitor.visit(seq, ts, id);
+        return true;
+    }
+
+    /** Обойти живые записи в порядке номеров. */
+    public void forEach(EntryVisitor visitor) {
+        long h = head.get();
+        for (long seq = Math.max(0, h - capacity); seq < h; seq++) {
+            read(seq, visitor);
+        }
+    }
+
+    /**
+     * Обойти живые записи с номерами от fromSeq для инкрементального чтения.
+     * Останавливается на первой записи, которую производитель ещё не опубликовал,
+     * чтобы следующий проход её не пропустил; удалённые и вытесненные записи пропускаются.
+     * @return номер, с которого продолжать следующий проход
+     */
+    public long forEachFrom(long fromSeq, EntryVisitor visitor) {
+        return forEachFrom(fromSeq, Long.MAX_VALUE, visitor);
+    }
+
+    /** То же, но не больше limit записей за проход. */
+    public long forEachFrom(long fromSeq, long limit, EntryVisitor visitor) {
+        long h = head.get();
+        long seq = Math.max(fromSeq, Math.max(0, h - capacity));
+        long visited = 0;
+        for (; seq < h && visited < limit; seq++) {
+            boolean found;
+            while (!(found = read(seq, visitor))) {
+                long w = states.get(slot(seq));
+                if ((w >>> 2) - 1 > seq || w == word(seq, CLEARED)) break; // вытеснена или удалена
+                if (w != word(seq, LIVE)) return seq; // слот ещё не захвачен или запись не закончена
+                // опубликована между проверками — читаем ещё раз
+            }
+            if (found) visited++;
+        }
+        return seq;
+    }
+
+    /**
+     * Обойти живые записи с номерами [fromSeq, toSeq) вместе с длиной серии — для снимка истории.
+     * Как forEachFrom, останавливается на записи, которую производитель ещё не опубликовал.
+     * @return номер, с которого продолжать; toSeq — обойдено всё
+     */
+    public long forEachRunFrom(long fromSeq, long toSeq, RunVisitor visitor) {
+        long seq = Math.max(fromSeq, Math.max(0, head.get() - capacity));
+        for (; seq < toSeq; seq++) {
+            while (!readRun(seq, visitor)) {
+                long w = states.get(slot(seq));
+                if ((w >>> 2) - 1 > seq || w == word(seq, CLEARED)) break; // вытеснена или удалена
+                if (w != word(seq, LIVE)) return seq; // запись не закончена или серия продлевается
+            }
+        }
+        return seq;
+    }
+
+    /**
+     * Удалить все живые записи. Каждая запись удаляется ровно один раз:
+     * либо здесь (CAS LIVE -> CLEARED), либо вытеснением в append.
+     * @return количество удалённых записей
+     */
+    public int clear(EntryVisitor removed) {
+        long h = head.get();
+        int count = 0;
+        for (long seq = Math.max(0, h - capacity); seq < h; seq++) {
+            int slot = slot(seq);
+            long live = word(seq, LIVE);
+            if (states.get(slot) != live) continue;
+            long ts = timestamps[slot];
+            int id = messageIds[slot];
+            if (states.compareAndSet(slot, live, word(seq, CLEARED))) {
+                if (removed != null) removed.visit(seq, ts, id);
+                count++;
+            }
+        }
+        return count;
+    }
+}
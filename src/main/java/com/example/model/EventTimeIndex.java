@@ -0,0 +1,168 @@
+package com.example.model;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Индекс истории событий, отсортированный по (timestamp, seq), для запросов по диапазону времени.
+ *
+ * Хранится в кольцевых примитивных массивах: события приходят почти по возрастанию времени,
+ * поэтому вставка — сдвиг нескольких элементов у хвоста, а вытеснение старых — у головы.
+ * Пишут производители модели под write lock (добавление — до публикации события в кольце,
+ * вытеснение и очистка — после, так что удаление не обгоняет добавление); читатели ищут
+ * бинарным поиском под optimistic read StampedLock и берут read lock только при гонке с записью.
+ */
+final class EventTimeIndex {
+
+    final StampedLock lock = new StampedLock();
+
+    // поля ниже меняются только под write lock; читатели обязаны проверять validate(stamp)
+    private long[] timestamps;
+    private long[] sequences;
+    private int[] messageIds;
+    private int head;
+    private int size;
+    private long version; // растёт при каждом изменении — по нему виды кэшируют свои границы
+
+    EventTimeIndex(int capacity) {
+        int c = Math.max(1, capacity);
+        timestamps = new long[c];
+        sequences = new long[c];
+        messageIds = new int[c];
+    }
+
+    // ---------------- запись (под write lock) ----------------
+
+    void add(long seq, long ts, int messageId) {
+        long stamp = lock.writeLock();
+        try {
+            if (size == timestamps.length) grow();
+            int p = size;
+            while (p > 0 && compare(p - 1, ts, seq) > 0) p--; // почти всегда 0-1 шаг
+            for (int i = size; i > p; i--) move(i - 1, i);
+            set(p, seq, ts, messageId);
+            size++;
+            version++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    void remove(long seq, long ts) {
+        long stamp = lock.writeLock();
+        try {
+            int p = lowerBound(ts, seq);
+            if (p == size || sequenceAt(p) != seq) return;
+            if (p < size / 2) {
+                for (int i = p; i > 0; i--) move(i - 1, i);
+                head = (head + 1) % timestamps.length;
+            } else {
+                for (int i = p; i < size - 1; i++) move(i + 1, i);
+            }
+            size--;
+            version++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void grow() {
+        int n = timestamps.length * 2;
+        long[] ts = new long[n];
+        long[] seqs = new long[n];
+        int[] ids = new int[n];
+        for (int i = 0; i < size; i++) {
+            int ph = physical(i);
+            ts[i] = timestamps[ph];
+            seqs[i] = sequences[ph];
+            ids[i] = messageIds[ph];
+        }
+        timestamps = ts;
+        sequences = seqs;
+        messageIds = ids;
+        head = 0;
+    }
+
+    private void move(int from, int to) {
+        int f = physical(from);
+        set(to, sequences[f], timestamps[f], messageIds[f]);
+    }
+
+    private void set(int p, long seq, long ts, int messageId) {
+        int ph = physical(p);
+        timestamps[ph] = ts;
+        sequences[ph] = seq;
+        messageIds[ph] = messageId;
+    }
+
+    private int compare(int p, long ts, long seq) {
+        int c = Long.compare(timestampAt(p), ts);
+        return c != 0 ? c : Long.compare(sequenceAt(p), seq);
+    }
+
+    private int physical(int p) {
+        return (head + p) % timestamps.length;
+    }
+
+    /** Текущий размер — можно вызывать без stamp. */
+    int count() {
+        long stamp = lock.tryOptimisticRead();
+        int n = size;
+        if (lock.validate(stamp)) return n;
+        stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // ---------------- чтение (вызывать под stamp и проверять validate) ----------------
+    // при гонке с grow() массивы могут быть разной длины — каждый индексируем по своей длине
+
+    long version() {
+        return version;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long timestampAt(int p) {
+        long[] a = timestamps;
+        return a[(head + p) % a.length];
+    }
+
+    long sequenceAt(int p) {
+        long[] a = sequences;
+        return a[(head + p) % a.length];
+    }
+
+    int messageIdAt(int p) {
+        int[] a = messageIds;
+        return a[(head + p) % a.length];
+    }
+
+    /** Скопировать позиции [from, to) в начало массивов; вызывать под read lock. */
+    void copyTo(int from, int to, long[] seqs, long[] ts, int[] ids) {
+        int n = to - from;
+        int start = physical(from);
+        int first = Math.min(n, timestamps.length - start); // до конца кольца, остальное — с начала
+        System.arraycopy(sequences, start, seqs, 0, first);
+        System.arraycopy(timestamps, start, ts, 0, first);
+        System.arraycopy(messageIds, start, ids, 0, first);
+        System.arraycopy(sequences, 0, seqs, first, n - first);
+        System.arraycopy(timestamps, 0, ts, first, n - first);
+        System.arraycopy(messageIds, 0, ids, first, n - first);
+    }
+
+    /** Первая позиция с ключом >= (ts, seq). */
+    int lowerBound(long ts, long seq) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(mid, ts, seq) < 0) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+}
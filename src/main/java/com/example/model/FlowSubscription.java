@@ -0,0 +1,191 @@
+package com.example.model;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Подписка Flow на модель: сигналы подписчику идут последовательно, в executor-е подписки,
+ * и только в пределах request(n). Модель ничего не копит за подписчика:
+ * время — последнее значение, события — курсор по номерам в кольцевом буфере.
+ */
+abstract class FlowSubscription<T> implements Flow.Subscription, Runnable {
+
+    final Flow.Subscriber<? super T> subscriber;
+    private final Executor executor;
+    private final List<FlowSubscription<?>> registry; // подписки модели; отменённая удаляет себя
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile boolean cancelled;
+    private volatile IllegalArgumentException badRequest; // неположительный request(n) — сообщить через onError
+
+    FlowSubscription(Flow.Subscriber<? super T> subscriber, Executor executor, List<FlowSubscription<?>> registry) {
+        this.subscriber = subscriber;
+        this.executor = executor;
+        this.registry = registry;
+    }
+
+    /**
+     * Зарегистрироваться в модели и отдать подписку подписчику. На время onSubscribe проход занят (wip = 1):
+     * request(n) изнутри onSubscribe не запускает onNext в другом потоке, пока onSubscribe не вернулся (правило 1.3),
+     * а накопленная работа выполняется сразу после него.
+     */
+    final void start() {
+        wip.set(1);
+        registry.add(this);
+        try {
+            subscriber.onSubscribe(this);
+        } catch (Throwable ex) {
+            ex.printStackTrace();
+            cancel();
+        }
+        if (wip.addAndGet(-1) != 0) dispatch();
+    }
+
+    // ---------------- сигналы от модели (из потоков производителей) ----------------
+
+    void onEventAppended() {}
+
+    void onTimeUpdated(long ts) {}
+
+    /** Запланировать проход, только если подписчик что-то просил — без спроса модель подписчику не пишет. */
+    final void signalIfDemand() {
+        if (requested.get() > 0) signal();
+    }
+
+    final void signal() {
+        if (wip.getAndIncrement() == 0) dispatch();
+    }
+
+    private void dispatch() {
+        try {
+            executor.execute(this);
+        } catch (RuntimeException ex) {
+            ex.printStackTrace();
+            cancel();
+        }
+    }
+
+    // ---------------- Flow.Subscription ----------------
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            badRequest = new IllegalArgumentException("request(n) requires n > 0, got " + n);
+        } else {
+            long r;
+            do {
+                r = requested.get();
+                if (r == Long.MAX_VALUE) break;
+            } while (!requested.compareAndSet(r, r + n < 0 ? Long.MAX_VALUE : r + n));
+        }
+        signal();
+    }
+
+    @Override
+    public void cancel() {
+        if (!cancelled) {
+            cancelled = true;
+            registry.remove(this);
+        }
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public final void run() {
+        int missed = 1;
+        do {
+            if (cancelled) return;
+            if (badRequest != null) {
+                cancel();
+                subscriber.onError(badRequest);
+                return;
+            }
+            long demand = requested.get();
+            if (demand > 0) {
+                long emitted;
+                try {
+                    emitted = emit(demand);
+                } catch (Throwable ex) {
+                    // подписчик бросил из onNext — считаем подписку отменённой (правило 2.13)
+                    ex.printStackTrace();
+                    cancel();
+                    return;
+                }
+                if (emitted > 0 && demand != Long.MAX_VALUE) requested.addAndGet(-emitted);
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /** Отдать подписчику не больше demand элементов; вернуть, сколько отдано. */
+    abstract long emit(long demand);
+
+    /**
+     * Время: отдаётся только последнее значение, промежуточные сливаются, пока подписчик не просит.
+     * Значение, равное уже отданному, повторно не отдаётся.
+     */
+    static final class Time extends FlowSubscription<Long> {
+        private final AtomicLong latest = new AtomicLong();
+        private long lastEmitted;      // только в run()
+        private boolean emittedAny;    // только в run(); первым значением подписчик получит текущее время
+
+        Time(Flow.Subscriber<? super Long> subscriber, Executor executor, List<FlowSubscription<?>> registry,
+             long current) {
+            super(subscriber, executor, registry);
+            latest.set(current);
+        }
+
+        @Override
+        void onTimeUpdated(long ts) {
+            latest.set(ts);
+            signalIfDemand();
+        }
+
+        @Override
+        long emit(long demand) {
+            long v = latest.get();
+            if (emittedAny && v == lastEmitted) return 0;
+            emittedAny = true;
+            lastEmitted = v;
+            subscriber.onNext(v);
+            return 1;
+        }
+    }
+
+    /** События: курсор по номерам. Отставший подписчик пропускает события, уже вытесненные из истории. */
+    static final class Events extends FlowSubscription<ClockEvent> {
+        private final EventRingBuffer events;
+        private final MessageTable messages;
+        private long cursor; // только в run()
+        private long count;
+
+        Events(Flow.Subscriber<? super ClockEvent> subscriber, Executor executor, List<FlowSubscription<?>> registry,
+               EventRingBuffer events, MessageTable messages, long fromSeq) {
+            super(subscriber, executor, registry);
+            this.events = events;
+            this.messages = messages;
+            this.cursor = Math.max(0, fromSeq);
+        }
+
+        @Override
+        void onEventAppended() {
+            signalIfDemand();
+        }
+
+        @Override
+        long emit(long demand) {
+            count = 0;
+            cursor = events.forEachFrom(cursor, demand, (seq, ts, id) -> {
+                count++;
+                if (!isCancelled()) subscriber.onNext(new ClockEvent(seq, ts, messages.message(id)));
+            });
+            return count;
+        }
+    }
+}
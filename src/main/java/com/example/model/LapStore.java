@@ -0,0 +1,129 @@
+package com.example.model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only хранилище кругов секундомера: длительность круга и сплит (время от старта) в наносекундах.
+ *
+ * Данные лежат в примитивных массивах-чанках, чанк k вдвое больше предыдущего — при росте
+ * ничего не копируется. Индекс записи выдаёт StopwatchStrategy (вместе со сменой состояния),
+ * поэтому номера кругов идут в порядке их фиксации. Запись и чтение без блокировок;
+ * min/max/среднее считаются на лету, перцентили — по снимку.
+ */
+final class LapStore {
+
+    private static final int FIRST_CHUNK_BITS = 10;
+    private static final int MAX_CHUNKS = 31 - FIRST_CHUNK_BITS;
+    /** Сколько кругов помещается во все чанки. */
+    static final int CAPACITY = ((1 << MAX_CHUNKS) - 1) << FIRST_CHUNK_BITS;
+
+    // в слоте хранится value + 1: ноль означает "ещё не записано"
+    private final AtomicReferenceArray<AtomicLongArray> lapChunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+    private final AtomicReferenceArray<AtomicLongArray> splitChunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    private static int chunkOf(int index) {
+        return 31 - Integer.numberOfLeadingZeros((index >>> FIRST_CHUNK_BITS) + 1);
+    }
+
+    private static int offsetIn(int chunk, int index) {
+        return index - (((1 << chunk) - 1) << FIRST_CHUNK_BITS);
+    }
+
+    private static AtomicLongArray chunk(AtomicReferenceArray<AtomicLongArray> chunks, int k) {
+        AtomicLongArray c = chunks.get(k);
+        if (c == null) {
+            chunks.compareAndSet(k, null, new AtomicLongArray(1 << (FIRST_CHUNK_BITS + k)));
+            c = chunks.get(k);
+        }
+        return c;
+    }
+
+    /**
+     * Выделить чанки под круг index заранее, до того как индекс станет виден читателям:
+     * если выделение упадёт (OOM), круг не будет опубликован и читатели не будут его ждать.
+     */
+    void reserve(int index) {
+        int k = chunkOf(index);
+        chunk(splitChunks, k);
+        chunk(lapChunks, k);
+    }
+
+    /** Записать круг index; каждый индекс пишется ровно одним потоком. */
+    void set(int index, long lapNanos, long splitNanos) {
+        int k = chunkOf(index);
+        int off = offsetIn(k, index);
+        chunk(splitChunks, k).set(off, splitNanos + 1);
+        chunk(lapChunks, k).set(off, lapNanos + 1);
+
+        sum.add(lapNanos);
+        long m = min.get();
+        while (lapNanos < m && !min.compareAndSet(m, lapNanos)) m = min.get();
+        m = max.get();
+        while (lapNanos > m && !max.compareAndSet(m, lapNanos)) m = max.get();
+        count.increment(); // последним: при count > 0 min/max уже заполнены
+    }
+
+    // индекс уже выдан, но запись может ещё не дойти — обычно доли микросекунды; если писателя вытеснили,
+    // ждём с той же лестницей spin -> yield -> park, что и EventRingBuffer.append, а не жжём ядро
+    private static long await(AtomicReferenceArray<AtomicLongArray> chunks, int index) {
+        int k = chunkOf(index);
+        int off = offsetIn(k, index);
+        AtomicLongArray c = chunk(chunks, k);
+        long v;
+        for (int spins = 0; (v = c.get(off)) == 0; spins++) {
+            if (spins < 64) Thread.onSpinWait();
+            else if (spins < 128) Thread.yield();
+            else LockSupport.parkNanos(1_000L);
+        }
+        return v - 1;
+    }
+
+    long lapNanos(int index) {
+        return await(lapChunks, index);
+    }
+
+    long splitNanos(int index) {
+        return await(splitChunks, index);
+    }
+
+    /** Число записанных кругов. */
+    long getCount() {
+        return count.sum();
+    }
+
+    long getMinNanos() {
+        return count.sum() == 0 ? 0 : min.get();
+    }
+
+    long getMaxNanos() {
+        return count.sum() == 0 ? 0 : max.get();
+    }
+
+    double getMeanNanos() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Точный перцентиль длительности по первым size кругам (nearest-rank).
+     * @param percentile от 0 до 100
+     */
+    long percentileNanos(int size, double percentile) {
+        if (size <= 0) return 0;
+        long[] snapshot = new long[size];
+        for (int i = 0; i < size; i++) snapshot[i] = lapNanos(i);
+        Arrays.sort(snapshot);
+        int rank = (int) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100.0 * size);
+        return snapshot[Math.max(1, rank) - 1];
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.model;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Таблица интернированных сообщений: строка <-> int id.
+ * Повторяющиеся сообщения ("Tick") резолвятся одним чтением из map без аллокаций,
+ * блокировка берётся только при регистрации нового сообщения.
+ */
+public final class MessageTable {
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] messages = new String[16];
+    private int size; // guarded by this
+
+    public int intern(String message) {
+        Integer id = ids.get(message);
+        if (id != null) return id;
+        synchronized (this) {
+            id = ids.get(message);
+            if (id != null) return id;
+            int next = size;
+            String[] arr = messages;
+            if (next == arr.length) arr = Arrays.copyOf(arr, next * 2);
+            arr[next] = message;
+            messages = arr; // volatile-запись публикует новый элемент для читателей message()
+            size = next + 1;
+            ids.put(message, next);
+            return next;
+        }
+    }
+
+    public String message(int id) {
+        return messages[id];
+    }
+
+    public int size() {
+        synchronized (this) {
+            return size;
+        }
+    }
+}
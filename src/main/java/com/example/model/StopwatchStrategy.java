@@ -1,55 +1,147 @@
 package com.example.model;
-import java.time.LocalTime;
+import com.example.format.ClockTimeFormatter;
 
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Секундомер с кругами. Всё состояние — один неизменяемый снимок в AtomicReference:
+ * читатели видят согласованную пару (запущен ли, точка отсчёта), команды меняют его CAS-ом.
+ * Круги фиксируются из любых потоков без блокировок; номер круга выдаётся тем же CAS-ом,
+ * поэтому порядок номеров совпадает с порядком фиксации.
+ */
 public class StopwatchStrategy implements TimeStrategy {
-    // baseNano - момент старта в System.nanoTime()
-    private final AtomicLong baseNano = new AtomicLong(0);
-    private final AtomicLong pausedElapsedNano = new AtomicLong(0);
-    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private static final class State {
+        final boolean running;
+        final long baseNano;          // момент последнего старта в clock.nanoTime()
+        final long pausedElapsedNano; // накоплено до последнего старта
+        final long lastSplitNano;     // сплит последнего круга
+        final int lapCount;
+        final LapStore laps;
+
+        State(boolean running, long baseNano, long pausedElapsedNano, long lastSplitNano, int lapCount, LapStore laps) {
+            this.running = running;
+            this.baseNano = baseNano;
+            this.pausedElapsedNano = pausedElapsedNano;
+            this.lastSplitNano = lastSplitNano;
+            this.lapCount = lapCount;
+            this.laps = laps;
+        }
+
+        long elapsedNano(long nowNano) {
+            return running ? pausedElapsedNano + (nowNano - baseNano) : pausedElapsedNano;
+        }
+    }
+
+    private final ClockSource clock;
+    private final AtomicReference<State> state =
+            new AtomicReference<>(new State(false, 0, 0, 0, 0, new LapStore()));
+
+    public StopwatchStrategy() {
+        this(ClockSource.system());
+    }
+
+    public StopwatchStrategy(ClockSource clock) {
+        this.clock = clock;
+    }
 
     @Override
     public long getCurrentTimeMillis() {
-        long elapsedNano = pausedElapsedNano.get();
-        if (running.get()) {
-            elapsedNano += System.nanoTime() - baseNano.get();
-        }
-        return elapsedNano / 1_000_000L;
+        return state.get().elapsedNano(clock.nanoTime()) / 1_000_000L;
     }
 
     @Override
     public String getDisplayTime() {
-        long ms = getCurrentTimeMillis();
-        long seconds = (ms / 1000) % 60;
-        long minutes = (ms / (1000 * 60)) % 60;
-        long hours = (ms / (1000 * 60 * 60));
-        long millis = ms % 1000;
-        return String.format("%02d:%02d:%02d.%03d", hours, minutes, seconds, millis);
+        return ClockTimeFormatter.formatElapsed(getCurrentTimeMillis());
+    }
+
+    @Override
+    public void appendDisplayTime(StringBuilder sink) {
+        ClockTimeFormatter.formatElapsed(getCurrentTimeMillis(), sink);
     }
 
     @Override
     public void start() {
-        if (running.compareAndSet(false, true)) {
-            baseNano.set(System.nanoTime());
-        }
+        State s;
+        do {
+            s = state.get();
+            if (s.running) return;
+        } while (!state.compareAndSet(s,
+                new State(true, clock.nanoTime(), s.pausedElapsedNano, s.lastSplitNano, s.lapCount, s.laps)));
     }
 
     @Override
     public void stop() {
-        if (running.compareAndSet(true, false)) {
-            long elapsedSinceBase = System.nanoTime() - baseNano.get();
-            pausedElapsedNano.addAndGet(elapsedSinceBase);
-        }
+        State s;
+        do {
+            s = state.get();
+            if (!s.running) return;
+        } while (!state.compareAndSet(s,
+                new State(false, 0, s.elapsedNano(clock.nanoTime()), s.lastSplitNano, s.lapCount, s.laps)));
     }
 
     @Override
     public void reset() {
-        running.set(false);
-        baseNano.set(0);
-        pausedElapsedNano.set(0);
+        // круги начинаются заново в новом хранилище; запоздавшие записи уйдут в старое
+        state.set(new State(false, 0, 0, 0, 0, new LapStore()));
     }
+
+    /**
+     * Зафиксировать круг: длительность от предыдущего круга (или от старта) и сплит — время от старта.
+     * @return длительность круга, нс
+     */
+    public long lap() {
+        State s;
+        long split;
+        do {
+            s = state.get();
+            if (s.lapCount == LapStore.CAPACITY) throw new IllegalStateException("Too many laps, reset the stopwatch");
+            s.laps.reserve(s.lapCount); // после CAS остаются только записи в готовые массивы
+            // время берём на каждой попытке: иначе сплит мог бы оказаться раньше уже зафиксированного
+            split = Math.max(s.lastSplitNano, s.elapsedNano(clock.nanoTime()));
+        } while (!state.compareAndSet(s,
+                new State(s.running, s.baseNano, s.pausedElapsedNano, split, s.lapCount + 1, s.laps)));
+        long lap = split - s.lastSplitNano;
+        s.laps.set(s.lapCount, lap, split);
+        return lap;
+    }
+
+    public int getLapCount() {
+        return state.get().lapCount;
+    }
+
+    /** Длительность круга index (с нуля), нс. */
+    public long getLapNanos(int index) {
+        State s = state.get();
+        if (index < 0 || index >= s.lapCount) throw new IndexOutOfBoundsException(index);
+        return s.laps.lapNanos(index);
+    }
+
+    /** Сплит круга index — время от старта до его фиксации, нс. */
+    public long getSplitNanos(int index) {
+        State s = state.get();
+        if (index < 0 || index >= s.lapCount) throw new IndexOutOfBoundsException(index);
+        return s.laps.splitNanos(index);
+    }
+
+    public long getMinLapNanos() {
+        return state.get().laps.getMinNanos();
+    }
+
+    public long getMaxLapNanos() {
+        return state.get().laps.getMaxNanos();
+    }
+
+    public double getMeanLapNanos() {
+        return state.get().laps.getMeanNanos();
+    }
+
+    /** Точный перцентиль длительности кругов (nearest-rank), percentile от 0 до 100. */
+    public long getLapPercentileNanos(double percentile) {
+        State s = state.get();
+        return s.laps.percentileNanos(s.lapCount, percentile);
+    }
+
     @Override
     public String getModeLabel() {
         return "Секундомер";
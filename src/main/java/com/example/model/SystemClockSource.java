@@ -0,0 +1,18 @@
+package com.example.model;
+
+final class SystemClockSource implements ClockSource {
+
+    static final SystemClockSource INSTANCE = new SystemClockSource();
+
+    private SystemClockSource() {}
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+}
@@ -1,23 +1,36 @@
 package com.example.model;
 
-import java.time.LocalTime;
+import com.example.format.ClockTimeFormatter;
 
-import java.time.Instant;
 import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
 
 public class SystemTimeStrategy implements TimeStrategy {
-    private static final DateTimeFormatter FORMATTER =
-            DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    private static final ClockTimeFormatter FORMATTER =
+            ClockTimeFormatter.forZone(ZoneId.systemDefault());
+
+    private final ClockSource clock;
+
+    public SystemTimeStrategy() {
+        this(ClockSource.system());
+    }
+
+    public SystemTimeStrategy(ClockSource clock) {
+        this.clock = clock;
+    }
 
     @Override
     public long getCurrentTimeMillis() {
-        return System.currentTimeMillis();
+        return clock.currentTimeMillis();
     }
 
     @Override
     public String getDisplayTime() {
-        return FORMATTER.format(Instant.ofEpochMilli(getCurrentTimeMillis()));
+        return FORMATTER.formatWallClock(getCurrentTimeMillis());
+    }
+
+    @Override
+    public void appendDisplayTime(StringBuilder sink) {
+        FORMATTER.formatWallClock(getCurrentTimeMillis(), sink);
     }
 
     @Override
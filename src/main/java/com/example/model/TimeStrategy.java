@@ -11,6 +11,10 @@ public interface TimeStrategy {
      * Читабельное строковое представление для показа.
      */
     String getDisplayTime();
+    /**
+     * То же, что getDisplayTime, но с записью в переданный буфер — без промежуточных строк.
+     */
+    default void appendDisplayTime(StringBuilder sink) { sink.append(getDisplayTime()); }
     /**
      * Запустить/остановить стратегию (для секундомера).
      */
@@ -0,0 +1,38 @@
+package com.example.model;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Детерминированное виртуальное время: стоит на месте, пока его не сдвинут вручную.
+ * Вместе с VirtualTickScheduler позволяет прогнать часы тиканья за миллисекунды.
+ */
+public final class VirtualClockSource implements ClockSource {
+
+    private final long epochMillisAtZero;
+    private final AtomicLong nanos = new AtomicLong();
+
+    /** @param startEpochMillis настенное время в момент создания */
+    public VirtualClockSource(long startEpochMillis) {
+        this.epochMillisAtZero = startEpochMillis;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return epochMillisAtZero + TimeUnit.NANOSECONDS.toMillis(nanos.get());
+    }
+
+    @Override
+    public long nanoTime() {
+        return nanos.get();
+    }
+
+    public void advance(long amount, TimeUnit unit) {
+        nanos.addAndGet(Math.max(0, unit.toNanos(amount)));
+    }
+
+    /** Сдвинуть монотонное время до nanoTime; назад время не идёт. */
+    public void advanceTo(long nanoTime) {
+        nanos.accumulateAndGet(nanoTime, Math::max);
+    }
+}
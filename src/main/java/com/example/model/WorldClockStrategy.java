@@ -0,0 +1,95 @@
+package com.example.model;
+
+import com.example.format.ClockTimeFormatter;
+import com.example.format.ZoneOffsetCache;
+
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Мировое время: N зон от одного чтения часов.
+ * Смещение каждой зоны кэшируется до её следующего перехода (ZoneOffsetCache),
+ * поэтому время зоны на тике — сложение и деление, без ZonedDateTime.
+ * getCurrentTimeMillis — общий epoch millis; время зоны i — formatZone(i, epochMillis, ...).
+ */
+public class WorldClockStrategy implements TimeStrategy {
+
+    private final ClockSource clock;
+    private final ZoneId[] zones;
+    private final ZoneOffsetCache[] offsets;
+    private final String[] labels;
+    private final char[] displayBuf = new char[ClockTimeFormatter.MAX_LENGTH]; // guarded by this
+
+    public WorldClockStrategy(List<ZoneId> zones) {
+        this(zones, ClockSource.system());
+    }
+
+    public WorldClockStrategy(List<ZoneId> zones, ClockSource clock) {
+        this.clock = clock;
+        this.zones = zones.toArray(new ZoneId[0]);
+        this.offsets = new ZoneOffsetCache[this.zones.length];
+        this.labels = new String[this.zones.length];
+        for (int i = 0; i < this.zones.length; i++) {
+            offsets[i] = ZoneOffsetCache.of(this.zones[i]);
+            labels[i] = labelOf(this.zones[i]);
+        }
+    }
+
+    // "America/New_York" -> "New York"
+    private static String labelOf(ZoneId zone) {
+        String id = zone.getId();
+        return id.substring(id.lastIndexOf('/') + 1).replace('_', ' ');
+    }
+
+    @Override
+    public long getCurrentTimeMillis() {
+        return clock.currentTimeMillis();
+    }
+
+    @Override
+    public String getDisplayTime() {
+        StringBuilder sb = new StringBuilder(zones.length * 20);
+        appendDisplayTime(sb);
+        return sb.toString();
+    }
+
+    /** "Город HH:mm:ss" по всем зонам через запятую — от одного чтения часов. */
+    @Override
+    public synchronized void appendDisplayTime(StringBuilder sink) {
+        long now = getCurrentTimeMillis();
+        for (int i = 0; i < zones.length; i++) {
+            if (i > 0) sink.append(", ");
+            sink.append(labels[i]).append(' ');
+            sink.append(displayBuf, 0, formatZone(i, now, displayBuf, 0));
+        }
+    }
+
+    @Override
+    public String getModeLabel() {
+        return "Мировое время";
+    }
+
+    public int getZoneCount() {
+        return zones.length;
+    }
+
+    public ZoneId getZone(int i) {
+        return zones[i];
+    }
+
+    public String getZoneLabel(int i) {
+        return labels[i];
+    }
+
+    public int getOffsetSeconds(int i, long epochMillis) {
+        return offsets[i].offsetSeconds(epochMillis);
+    }
+
+    /**
+     * "HH:mm:ss" зоны i для момента epochMillis.
+     * @return позиция сразу после записанных символов
+     */
+    public int formatZone(int i, long epochMillis, char[] dst, int off) {
+        return ClockTimeFormatter.formatTimeOfDay(offsets[i].toLocalMillis(epochMillis), dst, off);
+    }
+}
@@ -0,0 +1,371 @@
+package com.example.net;
+
+import com.example.model.ClockEvent;
+import com.example.model.ClockModel;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TCP-вещание времени и событий модели множеству клиентов (дашборды) из одного потока на Selector-е.
+ *
+ * Сервер подписан на модель через timePublisher/eventPublisher; сигналы подписок выполняются
+ * в потоке селектора, поэтому всё состояние клиентов однопоточное. Каждый кадр (FrameCodec)
+ * кодируется один раз и разделяется всеми сокетами; в сокет кадры клиента пишутся пачкой
+ * через общий scratch-буфер — одна системная запись на клиента за проход.
+ *
+ * Медленный клиент ничего не тормозит: время у него всегда одно, последнее (coalesce-latest),
+ * а очередь событий ограничена maxPendingEvents — при переполнении выбрасываются самые старые,
+ * пропуск клиент видит по номерам событий. Клиенту отправляются только события, появившиеся
+ * после старта сервера. Входящие байты клиентов читаются и отбрасываются.
+ */
+public final class ClockBroadcastServer implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_PENDING_EVENTS = 1024;
+
+    private static final int SCRATCH_BYTES = 128 * 1024; // больше самого длинного кадра события
+    private static final int ACCEPT_BACKLOG = 1024;       // дашборды переподключаются пачкой после рестарта
+
+    private final ClockModel model;
+    private final InetSocketAddress address;
+    private final int maxPendingEvents;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final Executor selectorExecutor = this::submit;
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private volatile int clientCount;
+
+    private Selector selector;
+    private ServerSocketChannel server;
+    private Thread thread;
+    private volatile boolean running;
+    private final List<Flow.Subscription> subscriptions = new ArrayList<>(); // guarded by this
+
+    // ниже — только поток селектора
+    private final List<Client> clients = new ArrayList<>();
+    private final ByteBuffer scratch = ByteBuffer.allocateDirect(SCRATCH_BYTES);
+    private final ByteBuffer readSink = ByteBuffer.allocate(512);
+    private final Map<String, byte[]> messageBytes = new HashMap<>();
+    private ByteBuffer latestTime;
+    private boolean dirty;
+
+    public ClockBroadcastServer(ClockModel model, InetSocketAddress address) {
+        this(model, address, DEFAULT_MAX_PENDING_EVENTS);
+    }
+
+    /** @param maxPendingEvents сколько неотправленных событий держать на клиента */
+    public ClockBroadcastServer(ClockModel model, InetSocketAddress address, int maxPendingEvents) {
+        this.model = model;
+        this.address = address;
+        this.maxPendingEvents = Math.max(1, maxPendingEvents);
+    }
+
+    public synchronized void start() throws IOException {
+        if (running) return;
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        try {
+            server.configureBlocking(false);
+            server.bind(address, ACCEPT_BACKLOG);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException ex) {
+            server.close();
+            selector.close();
+            throw ex;
+        }
+        running = true;
+        thread = new Thread(this::loop, "clock-broadcast");
+        thread.setDaemon(true);
+        thread.start();
+        model.timePublisher(selectorExecutor).subscribe(new Feed<Long>() {
+            @Override
+            public void onNext(Long millis) {
+                onTime(millis);
+            }
+        });
+        model.eventPublisher(model.getNextSequence(), selectorExecutor).subscribe(new Feed<ClockEvent>() {
+            @Override
+            public void onNext(ClockEvent e) {
+                onEvent(e);
+            }
+        });
+    }
+
+    /** Фактический адрес (при порте 0 — выбранный системой). */
+    public InetSocketAddress getLocalAddress() throws IOException {
+        return (InetSocketAddress) server.getLocalAddress();
+    }
+
+    public int getClientCount() {
+        return clientCount;
+    }
+
+    /** Сколько событий выброшено у медленных клиентов за всё время. */
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (!running) return;
+            running = false;
+            for (Flow.Subscription s : subscriptions) s.cancel();
+            subscriptions.clear();
+        }
+        selector.wakeup();
+        try {
+            thread.join(1000);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ---------------- поток селектора ----------------
+
+    private void submit(Runnable task) {
+        tasks.add(task);
+        Selector s = selector;
+        if (s != null) s.wakeup();
+    }
+
+    private void loop() {
+        try {
+            while (running) {
+                selector.select();
+                Runnable task;
+                while ((task = tasks.poll()) != null) task.run();
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Client c = (Client) key.attachment();
+                        if (key.isReadable()) read(c);
+                        if (key.isValid() && key.isWritable()) flush(c);
+                    }
+                }
+                if (dirty) {
+                    dirty = false;
+                    // клиенты, ждущие OP_WRITE, допишутся, когда сокет освободится
+                    for (int i = clients.size() - 1; i >= 0; i--) {
+                        Client c = clients.get(i);
+                        if (!c.waitingWrite) flush(c);
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException ex) {
+            ex.printStackTrace();
+        } finally {
+            for (Client c : new ArrayList<>(clients)) disconnect(c);
+            try { server.close(); } catch (IOException ex) { ex.printStackTrace(); }
+            try { selector.close(); } catch (IOException ex) { ex.printStackTrace(); }
+        }
+    }
+
+    private void accept() {
+        SocketChannel ch;
+        try {
+            while ((ch = server.accept()) != null) {
+                try {
+                    ch.configureBlocking(false);
+                    ch.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    Client c = new Client(ch);
+                    c.key = ch.register(selector, SelectionKey.OP_READ, c);
+                    c.current = FrameCodec.hello(); // не в очереди событий — приветствие не выбрасывается
+                    c.time = latestTime;
+                    clients.add(c);
+                    clientCount = clients.size();
+                    flush(c);
+                } catch (IOException ex) {
+                    ex.printStackTrace();
+                    ch.close();
+                }
+            }
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    private void read(Client c) {
+        try {
+            int n;
+            do {
+                readSink.clear();
+                n = c.channel.read(readSink);
+            } while (n > 0);
+            if (n < 0) disconnect(c);
+        } catch (IOException ex) {
+            disconnect(c);
+        }
+    }
+
+    private void onTime(long millis) {
+        ByteBuffer frame = FrameCodec.time(millis);
+        latestTime = frame;
+        for (int i = 0; i < clients.size(); i++) clients.get(i).time = frame; // старое время клиенту уже не нужно
+        dirty = true;
+    }
+
+    private void onEvent(ClockEvent e) {
+        String message = e.getMessage();
+        byte[] bytes = messageBytes.get(message);
+        if (bytes == null) {
+            if (messageBytes.size() >= 1024) messageBytes.clear();
+            bytes = message.getBytes(StandardCharsets.UTF_8);
+            messageBytes.put(message, bytes);
+        }
+        ByteBuffer frame = FrameCodec.event(e.getSequence(), e.getTimestampMillis(), bytes);
+        for (int i = 0; i < clients.size(); i++) {
+            Client c = clients.get(i);
+            if (c.events.size() >= maxPendingEvents) {
+                c.events.poll();
+                droppedEvents.incrementAndGet();
+            }
+            c.events.add(frame);
+        }
+        dirty = true;
+    }
+
+    /**
+     * Записать накопленные кадры клиента: текущий недописанный кадр, события, затем время.
+     * Кадры снимаются с очереди только после того, как сокет принял их целиком.
+     */
+    private void flush(Client c) {
+        try {
+            while (true) {
+                if (c.current == null) {
+                    c.current = c.nextFrame();
+                    c.offset = 0;
+                    if (c.current == null) break;
+                }
+                scratch.clear();
+                put(c.current, c.offset);
+                boolean allEvents = true;
+                for (ByteBuffer f : c.events) {
+                    if (!put(f, 0)) {
+                        allEvents = false;
+                        break;
+                    }
+                }
+                if (allEvents && c.time != null) put(c.time, 0);
+                scratch.flip();
+                int written = c.channel.write(scratch);
+                consume(c, written);
+                if (scratch.hasRemaining()) {
+                    setWaiting(c, true); // сокет полон — остальное по OP_WRITE
+                    return;
+                }
+            }
+            setWaiting(c, false);
+        } catch (IOException ex) {
+            disconnect(c);
+        }
+    }
+
+    private boolean put(ByteBuffer frame, int from) {
+        int len = frame.limit() - from;
+        if (len > scratch.remaining()) return false;
+        scratch.put(scratch.position(), frame, from, len);
+        scratch.position(scratch.position() + len);
+        return true;
+    }
+
+    // снять с клиента written байт — в том же порядке, в каком кадры легли в scratch
+    private static void consume(Client c, int written) {
+        while (written > 0 && c.current != null) {
+            int rest = c.current.limit() - c.offset;
+            if (written < rest) {
+                c.offset += written;
+                return;
+            }
+            written -= rest;
+            c.current = c.nextFrame();
+            c.offset = 0;
+        }
+    }
+
+    private void setWaiting(Client c, boolean waiting) {
+        if (c.waitingWrite == waiting || !c.key.isValid()) return;
+        c.waitingWrite = waiting;
+        c.key.interestOps(waiting ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    private void disconnect(Client c) {
+        if (clients.remove(c)) clientCount = clients.size();
+        c.key.cancel();
+        try {
+            c.channel.close();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    private static final class Client {
+        final SocketChannel channel;
+        final ArrayDeque<ByteBuffer> events = new ArrayDeque<>();
+        SelectionKey key;
+        ByteBuffer time;    // последнее неотправленное время
+        ByteBuffer current; // кадр, который пишется сейчас
+        int offset;
+        boolean waitingWrite;
+
+        Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        ByteBuffer nextFrame() {
+            ByteBuffer f = events.poll();
+            if (f == null) {
+                f = time;
+                time = null;
+            }
+            return f;
+        }
+    }
+
+    /** Подписка на модель без ограничения спроса: медленных клиентов сервер сливает сам. */
+    private abstract class Feed<T> implements Flow.Subscriber<T> {
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            synchronized (ClockBroadcastServer.this) {
+                if (!running) {
+                    subscription.cancel();
+                    return;
+                }
+                subscriptions.add(subscription);
+            }
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            throwable.printStackTrace();
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
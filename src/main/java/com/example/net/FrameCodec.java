@@ -0,0 +1,100 @@
+package com.example.net;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Бинарные кадры ClockBroadcastServer (big-endian):
+ *   приветствие  'C' 'L' 'K' 'B' версия(1 байт)          — один раз после подключения
+ *   'T' время(8)                                           — текущее время стратегии, мс
+ *   'E' seq(8) timestamp(8) длина(2) UTF-8 байты           — событие модели
+ *
+ * Кадр кодируется один раз и разделяется всеми клиентами, поэтому буферы кадров только читаются.
+ */
+public final class FrameCodec {
+
+    public static final byte TIME = 'T';
+    public static final byte EVENT = 'E';
+    public static final int TIME_FRAME_BYTES = 1 + 8;
+    public static final int EVENT_HEADER_BYTES = 1 + 8 + 8 + 2;
+    public static final int MAX_MESSAGE_BYTES = 0xFFFF;
+
+    private static final byte[] HELLO = {'C', 'L', 'K', 'B', 1};
+
+    /** Разобранные кадры для клиента. */
+    public interface FrameVisitor {
+        void onTime(long millis);
+
+        void onEvent(long seq, long timestampMillis, String message);
+    }
+
+    private FrameCodec() {
+    }
+
+    public static ByteBuffer hello() {
+        return ByteBuffer.wrap(HELLO).asReadOnlyBuffer();
+    }
+
+    public static int helloBytes() {
+        return HELLO.length;
+    }
+
+    public static ByteBuffer time(long millis) {
+        ByteBuffer b = ByteBuffer.allocate(TIME_FRAME_BYTES);
+        b.put(TIME).putLong(millis).flip();
+        return b.asReadOnlyBuffer();
+    }
+
+    /** message — UTF-8 байты; длиннее MAX_MESSAGE_BYTES обрезаются. */
+    public static ByteBuffer event(long seq, long timestampMillis, byte[] message) {
+        int len = Math.min(message.length, MAX_MESSAGE_BYTES);
+        ByteBuffer b = ByteBuffer.allocate(EVENT_HEADER_BYTES + len);
+        b.put(EVENT).putLong(seq).putLong(timestampMillis).putShort((short) len).put(message, 0, len).flip();
+        return b.asReadOnlyBuffer();
+    }
+
+    /**
+     * Проверить приветствие в начале потока.
+     * @return false, если байтов ещё мало; IllegalArgumentException, если это не поток часов
+     */
+    public static boolean readHello(ByteBuffer in) {
+        if (in.remaining() < HELLO.length) return false;
+        for (byte expected : HELLO) {
+            if (in.get() != expected) throw new IllegalArgumentException("Not a clock broadcast stream");
+        }
+        return true;
+    }
+
+    /**
+     * Разобрать полные кадры из in (режим чтения); неполный хвост остаётся в буфере —
+     * после compact() в него дочитываются следующие байты.
+     * @return сколько кадров разобрано
+     */
+    public static int decode(ByteBuffer in, FrameVisitor visitor) {
+        int frames = 0;
+        while (in.hasRemaining()) {
+            int start = in.position();
+            byte type = in.get(start);
+            if (type == TIME) {
+                if (in.remaining() < TIME_FRAME_BYTES) break;
+                in.get();
+                visitor.onTime(in.getLong());
+            } else if (type == EVENT) {
+                if (in.remaining() < EVENT_HEADER_BYTES) break;
+                int len = in.getShort(start + 17) & 0xFFFF;
+                if (in.remaining() < EVENT_HEADER_BYTES + len) break;
+                in.get();
+                long seq = in.getLong();
+                long ts = in.getLong();
+                in.getShort();
+                byte[] bytes = new byte[len];
+                in.get(bytes);
+                visitor.onEvent(seq, ts, new String(bytes, StandardCharsets.UTF_8));
+            } else {
+                throw new IllegalArgumentException("Unknown frame type " + type + " at " + start);
+            }
+            frames++;
+        }
+        return frames;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.scheduler;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TickScheduler поверх собственного однопоточного ScheduledExecutorService —
+ * поведение по умолчанию: один поток на контроллер.
+ */
+public class ExecutorTickScheduler implements TickScheduler {
+
+    private final ScheduledExecutorService executor;
+
+    public ExecutorTickScheduler(String threadName) {
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, threadName);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    public Handle schedule(Runnable task, long delay, TimeUnit unit) {
+        ScheduledFuture<?> future = executor.schedule(task, delay, unit);
+        return () -> future.cancel(false);
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
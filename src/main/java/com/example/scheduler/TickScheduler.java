@@ -0,0 +1,30 @@
+package com.example.scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Планировщик однократных задач для тикеров ClockController.
+ * Периодичность (fixed rate / выравнивание по границам) контроллер строит сам поверх schedule,
+ * поэтому одну реализацию могут делить тысячи контроллеров.
+ */
+public interface TickScheduler {
+
+    /** Отмена запланированной задачи. */
+    interface Handle {
+        void cancel();
+    }
+
+    Handle schedule(Runnable task, long delay, TimeUnit unit);
+
+    /** Источник настенного времени для выравнивания тиков. */
+    default long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /** Монотонное время, в котором считаются задержки schedule. */
+    default long nanoTime() {
+        return System.nanoTime();
+    }
+
+    default void shutdown() {}
+}
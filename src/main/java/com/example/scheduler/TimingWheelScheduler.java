@@ -0,0 +1,192 @@
+package com.example.scheduler;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Общий иерархический timing wheel для большого числа контроллеров в одном процессе.
+ *
+ * Один поток-драйвер двигает колёса с шагом tickMillis; задачи, у которых наступил срок,
+ * отдаются в executor (виртуальные потоки или work-stealing пул). Вставка и отмена — O(1):
+ * новые таймеры кладутся в lock-free очередь и разносятся по корзинам драйвером,
+ * отменённые просто помечаются и выбрасываются при срабатывании.
+ *
+ * Уровень l покрывает "цифру" l номера тика в системе счисления wheelSize; таймер кладётся
+ * на уровень старшей цифры, в которой его срок отличается от текущего тика, и спускается
+ * вниз (cascade), когда текущий тик доходит до его корзины.
+ */
+public final class TimingWheelScheduler implements TickScheduler {
+
+    private static final int LEVELS = 6;
+
+    private final long tickNanos;
+    private final int bits;
+    private final int mask;
+    private final Timer[][] wheels;
+    private final Queue<Timer> incoming = new ConcurrentLinkedQueue<>();
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final long startNanos;
+    private final Thread driver;
+
+    // состояние ниже трогает только поток-драйвер
+    private long currentTick;
+    private int timersInWheel;
+
+    private volatile boolean idle;
+    private volatile boolean running = true;
+
+    /**
+     * @param tickMillis разрешение колеса
+     * @param wheelSize  корзин на уровень (округляется вверх до степени двойки)
+     * @param executor   где выполнять сработавшие задачи
+     */
+    public TimingWheelScheduler(long tickMillis, int wheelSize, Executor executor) {
+        this(tickMillis, wheelSize, executor, null);
+    }
+
+    private TimingWheelScheduler(long tickMillis, int wheelSize, Executor executor, ExecutorService owned) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMillis));
+        this.bits = 32 - Integer.numberOfLeadingZeros(Math.max(2, wheelSize) - 1);
+        this.mask = (1 << bits) - 1;
+        this.wheels = new Timer[LEVELS][1 << bits];
+        this.executor = executor;
+        this.ownedExecutor = owned;
+        this.startNanos = System.nanoTime();
+        this.driver = new Thread(this::drive, "clock-timing-wheel");
+        this.driver.setDaemon(true);
+        this.driver.start();
+    }
+
+    /** Колесо 1 мс x 512, задачи — каждая в своём виртуальном потоке. */
+    public static TimingWheelScheduler withVirtualThreads() {
+        ExecutorService ex = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("clock-tick-", 0).factory());
+        return new TimingWheelScheduler(1, 512, ex, ex);
+    }
+
+    /** Колесо 1 мс x 512, задачи — в work-stealing пуле из parallelism потоков. */
+    public static TimingWheelScheduler withWorkStealingPool(int parallelism) {
+        ExecutorService ex = new ForkJoinPool(Math.max(1, parallelism),
+                ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        return new TimingWheelScheduler(1, 512, ex, ex);
+    }
+
+    @Override
+    public Handle schedule(Runnable task, long delay, TimeUnit unit) {
+        long deadlineNanos = System.nanoTime() + Math.max(0, unit.toNanos(delay));
+        // округляем вверх: задача не срабатывает раньше срока
+        Timer timer = new Timer(task, Math.floorDiv(deadlineNanos - startNanos + tickNanos - 1, tickNanos));
+        incoming.add(timer);
+        if (idle) LockSupport.unpark(driver);
+        return timer;
+    }
+
+    @Override
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(driver);
+        if (ownedExecutor != null) ownedExecutor.shutdownNow();
+    }
+
+    // ---------------- поток-драйвер ----------------
+
+    private void drive() {
+        while (running) {
+            long nowTick = (System.nanoTime() - startNanos) / tickNanos;
+            if (timersInWheel == 0 && incoming.isEmpty()) {
+                currentTick = Math.max(currentTick, nowTick); // пустое колесо: проматываем без обхода корзин
+                idle = true;
+                if (incoming.isEmpty() && running) LockSupport.park(this);
+                idle = false;
+                continue;
+            }
+            drainIncoming();
+            while (currentTick < nowTick) {
+                currentTick++;
+                advance(currentTick);
+            }
+            long sleep = startNanos + (currentTick + 1) * tickNanos - System.nanoTime();
+            if (sleep > 0) LockSupport.parkNanos(this, sleep);
+        }
+    }
+
+    private void drainIncoming() {
+        Timer t;
+        while ((t = incoming.poll()) != null) {
+            if (!t.cancelled) place(t);
+        }
+    }
+
+    private void place(Timer t) {
+        long diff = t.deadlineTick ^ currentTick;
+        if (t.deadlineTick <= currentTick) {
+            fire(t);
+            return;
+        }
+        int level = (63 - Long.numberOfLeadingZeros(diff)) / bits;
+        if (level >= LEVELS) level = LEVELS - 1; // дальше горизонта — ляжет на верхний уровень и будет переразложен
+        int index = (int) ((t.deadlineTick >>> (level * bits)) & mask);
+        t.next = wheels[level][index];
+        wheels[level][index] = t;
+        timersInWheel++;
+    }
+
+    private void advance(long tick) {
+        // сначала спускаем верхние уровни: их таймеры могут попасть в корзины нижних, которые обрабатываются сейчас
+        for (int level = LEVELS - 1; level >= 1; level--) {
+            if ((tick & ((1L << (level * bits)) - 1)) == 0) {
+                int index = (int) ((tick >>> (level * bits)) & mask);
+                Timer t = wheels[level][index];
+                wheels[level][index] = null;
+                while (t != null) {
+                    Timer next = t.next;
+                    timersInWheel--;
+                    if (!t.cancelled) place(t);
+                    t = next;
+                }
+            }
+        }
+        int index = (int) (tick & mask);
+        Timer t = wheels[0][index];
+        wheels[0][index] = null;
+        while (t != null) {
+            Timer next = t.next;
+            timersInWheel--;
+            if (!t.cancelled) {
+                if (t.deadlineTick <= tick) fire(t); else place(t);
+            }
+            t = next;
+        }
+    }
+
+    private void fire(Timer t) {
+        try {
+            executor.execute(t.task);
+        } catch (RuntimeException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    private static final class Timer implements Handle {
+        final Runnable task;
+        final long deadlineTick;
+        Timer next;
+        volatile boolean cancelled;
+
+        Timer(Runnable task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.scheduler;
+
+import com.example.model.VirtualClockSource;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Планировщик на виртуальном времени: задачи выполняются только внутри advance(),
+ * в вызывающем потоке, строго по порядку сроков. Часы сдвигаются к сроку каждой задачи
+ * перед её запуском, поэтому задержки тиков в гистограмме контроллера нулевые,
+ * а многочасовой прогон занимает столько, сколько стоят сами тики.
+ */
+public final class VirtualTickScheduler implements TickScheduler {
+
+    private final VirtualClockSource clock;
+    private final PriorityQueue<Task> queue = new PriorityQueue<>(); // guarded by this
+    private long sequence;                                           // guarded by this; порядок при равных сроках
+
+    public VirtualTickScheduler(VirtualClockSource clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public synchronized Handle schedule(Runnable task, long delay, TimeUnit unit) {
+        Task t = new Task(task, clock.nanoTime() + Math.max(0, unit.toNanos(delay)), sequence++);
+        queue.add(t);
+        return t;
+    }
+
+    /** Сдвинуть время на amount, выполнив все задачи, срок которых наступил (включая запланированные по ходу). */
+    public void advance(long amount, TimeUnit unit) {
+        long target = clock.nanoTime() + Math.max(0, unit.toNanos(amount));
+        Task t;
+        while ((t = pollDue(target)) != null) {
+            clock.advanceTo(t.deadlineNanos);
+            if (!t.cancelled) t.task.run();
+        }
+        clock.advanceTo(target);
+    }
+
+    private synchronized Task pollDue(long target) {
+        Task head = queue.peek();
+        return head != null && head.deadlineNanos <= target ? queue.poll() : null;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return clock.currentTimeMillis();
+    }
+
+    @Override
+    public long nanoTime() {
+        return clock.nanoTime();
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        queue.clear();
+    }
+
+    private static final class Task implements Handle, Comparable<Task> {
+        final Runnable task;
+        final long deadlineNanos;
+        final long sequence;
+        volatile boolean cancelled;
+
+        Task(Runnable task, long deadlineNanos, long sequence) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public int compareTo(Task o) {
+            int c = Long.compare(deadlineNanos, o.deadlineNanos);
+            return c != 0 ? c : Long.compare(sequence, o.sequence);
+        }
+    }
+}
@@ -1,40 +1,105 @@
 package com.example.view;
 
+import com.example.format.ClockTimeFormatter;
 import com.example.listener.UIListener;
 import com.example.listener.EventListListener;
 import com.example.model.ClockEvent;
 
 import javax.swing.*;
 import java.awt.*;
-import java.time.Instant;
+import java.awt.geom.Arc2D;
+import java.awt.image.BufferedImage;
 import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Consumer;
 
 public class ClockPanel extends JPanel implements UIListener, EventListListener {
 
+    // таблица углов с шагом 0.1°, уже со сдвигом -90° (0 — "12 часов"); индекс = позиция в минуте
+    private static final int TRIG_STEPS = 3600;
+    private static final double[] COS = new double[TRIG_STEPS];
+    private static final double[] SIN = new double[TRIG_STEPS];
+    static {
+        for (int i = 0; i < TRIG_STEPS; i++) {
+            double angle = Math.toRadians(i * 360.0 / TRIG_STEPS - 90);
+            COS[i] = Math.cos(angle);
+            SIN[i] = Math.sin(angle);
+        }
+    }
+
+    private static final Color DIAL_FILL = new Color(240, 240, 240);
+    private static final Color HAND_CLOCK = new Color(40, 40, 40);
+    private static final Color HAND_STOPWATCH = new Color(40, 40, 200);
+    private static final Color EVENT_MARK = new Color(200, 50, 50);
+    private static final Color EVENT_MARK_LOW = new Color(250, 210, 120);
+    // метки событий — кольцо плотности: 360 корзин по 1° минутного круга (1/6 с, 6 корзин на секунду),
+    // отрисовка O(корзин) при любой длине истории
+    private static final int EVENT_BINS = 360;
+    private static final int HEAT_LEVELS = 32;
+    private static final Color[] HEAT = new Color[HEAT_LEVELS];
+    static {
+        for (int i = 0; i < HEAT_LEVELS; i++) {
+            float t = i / (float) (HEAT_LEVELS - 1);
+            HEAT[i] = new Color(
+                    Math.round(EVENT_MARK_LOW.getRed() + t * (EVENT_MARK.getRed() - EVENT_MARK_LOW.getRed())),
+                    Math.round(EVENT_MARK_LOW.getGreen() + t * (EVENT_MARK.getGreen() - EVENT_MARK_LOW.getGreen())),
+                    Math.round(EVENT_MARK_LOW.getBlue() + t * (EVENT_MARK.getBlue() - EVENT_MARK_LOW.getBlue())));
+        }
+    }
+    private static final BasicStroke HEAT_STROKE = new BasicStroke(8f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER);
+    private static final BasicStroke DIAL_STROKE = new BasicStroke(2f);
+    private static final BasicStroke HAND_STROKE = new BasicStroke(3f);
+    private static final int HAND_MARGIN = 6; // запас вокруг стрелки для dirty-региона (толщина + точка в центре)
+
     private volatile long currentTimeMillis = 0;
     private volatile String modeLabel = "";
-    private final List<ClockEvent> displayEvents = new ArrayList<>();
-    private final DateTimeFormatter digitalFormatter = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
-    private LogWindow log;
+    // число событий по корзинам; пишут слушатели событий (поток диспетчера), читает paint — без общей блокировки
+    private final AtomicIntegerArray eventBins = new AtomicIntegerArray(EVENT_BINS);
+    private volatile int paintedMax; // максимум корзины на последней отрисовке — по нему выбран цвет всего кольца
+    private final Arc2D.Double heatArc = new Arc2D.Double(); // только EDT
+    private final ClockTimeFormatter digitalFormatter = ClockTimeFormatter.forZone(ZoneId.systemDefault());
+    private final char[] digitalBuf = new char[ClockTimeFormatter.MAX_LENGTH]; // только EDT
+    // статический слой циферблата; перерисовывается только при смене размера (только EDT)
+    private BufferedImage dialCache;
+    private Font baseFont, digitalFont, labelFont;
+    private volatile Consumer<String> log;
+    private Runnable firstPaint; // только EDT
 
     public void setLogWindow(LogWindow log) {
+        setLog(log != null ? log::log : null);
+    }
+
+    /** Куда писать строки лога панели — например, окно, которое создаётся при первой строке. */
+    public void setLog(Consumer<String> log) {
         this.log = log;
     }
 
+    /**
+     * Выполнить action один раз, после того как панель впервые отрисована (задачей EDT следом за отрисовкой).
+     * Вызывать из EDT до показа окна.
+     */
+    public void runAfterFirstPaint(Runnable action) {
+        this.firstPaint = action;
+    }
+
     public ClockPanel() {
         setPreferredSize(new Dimension(350, 350));
         setBackground(Color.WHITE);
         setDoubleBuffered(true);
     }
 
+    // колбэки модели приходят в потоке её диспетчера, не обязательно в EDT: они пишут только volatile-поля
+    // и атомарные корзины и зовут repaint, а состояние "только EDT" трогает один paintComponent
+
     @Override
     public void onTimeUpdated(long currentTimeMillis) {
+        long previous = this.currentTimeMillis; // вызовы одного слушателя последовательны
         this.currentTimeMillis = currentTimeMillis;
-        repaint();
+        // перерисовываем только старое и новое положение стрелки и строку цифрового времени
+        repaintHand(previous);
+        repaintHand(currentTimeMillis);
+        repaintDigital();
     }
     /**
      * Этот метод не используется. Однако если понадобится обновлять список событий через UI listener,
@@ -42,11 +107,9 @@ public class ClockPanel extends JPanel implements UIListener, EventListListener
      */
     @Override
     public void onEventsUpdated(List<ClockEvent> eventsCopy) {
-        synchronized (displayEvents) {
-            displayEvents.clear();
-            displayEvents.addAll(eventsCopy);
-            System.out.println("onEventsUpdated (as UI listener): displaying full-copied events");
-        }
+        for (int i = 0; i < EVENT_BINS; i++) eventBins.set(i, 0);
+        for (ClockEvent e : eventsCopy) eventBins.incrementAndGet(bin(e.getTimestampMillis()));
+        System.out.println("onEventsUpdated (as UI listener): displaying full-copied events");
         repaint();
     }
 
@@ -54,111 +117,230 @@ public class ClockPanel extends JPanel implements UIListener, EventListListener
     public void onModeChanged(String modeLabel) {
         this.modeLabel = modeLabel;
         repaint();
-        if (log != null) log.log("[As a Panel's log] Mode changed to: " + modeLabel);
+        if (log != null) log.accept("[As a Panel's log] Mode changed to: " + modeLabel);
     }
 
 
 
     @Override
     public void onEventAdded(ClockEvent e) {
-        synchronized (displayEvents) { displayEvents.add(e); }
-        repaint();
+        binAdded(e.getTimestampMillis());
         System.out.println("onEventAdded (as an EVENT listener): displaying delta-events");
-        if (log != null) log.log("[As a Panel's log] Event added: " + e);
+        if (log != null) log.accept("[As a Panel's log] Event added: " + e);
     }
 
     @Override
     public void onEventRemoved(ClockEvent e) {
-        synchronized (displayEvents) { displayEvents.remove(e); }
-        repaint();
-        if (log != null) log.log("[As a Panel's log] Event removed: " + e);
+        binRemoved(e.getTimestampMillis());
+        if (log != null) log.accept("[As a Panel's log] Event removed: " + e);
+    }
+
+    // пакетные варианты: RepaintManager сольёт регионы меток в одну перерисовку на flush модели
+    @Override
+    public void onEventsAdded(List<ClockEvent> events) {
+        for (ClockEvent e : events) binAdded(e.getTimestampMillis());
+        Consumer<String> l = log;
+        if (l != null) {
+            for (ClockEvent e : events) l.accept("[As a Panel's log] Event added: " + e);
+        }
     }
 
+    @Override
+    public void onEventsRemoved(List<ClockEvent> events) {
+        for (ClockEvent e : events) binRemoved(e.getTimestampMillis());
+        Consumer<String> l = log;
+        if (l != null) {
+            for (ClockEvent e : events) l.accept("[As a Panel's log] Event removed: " + e);
+        }
+    }
+
+    // продление серии сжатых повторов: метка уже учтена в корзине первого момента, счётчики корзин не меняются
+    @Override
+    public void onEventsExtended(List<ClockEvent> events) {
+    }
+
+
+    private static int bin(long millis) {
+        return (int) (Math.floorMod(millis, 60_000L) * EVENT_BINS / 60_000L);
+    }
+
+    // пока корзина не превысила максимум, цвета остальных не меняются — перерисовываем только её
+    private void binAdded(long timestampMillis) {
+        int count = eventBins.incrementAndGet(bin(timestampMillis));
+        if (count > paintedMax) repaint();
+        else repaintMarker(timestampMillis);
+    }
+
+    private void binRemoved(long timestampMillis) {
+        int b = bin(timestampMillis);
+        int count = eventBins.decrementAndGet(b);
+        if (count < 0) {
+            eventBins.incrementAndGet(b); // удаление события, которого панель не видела
+            return;
+        }
+        if (count + 1 >= paintedMax) repaint();
+        else repaintMarker(timestampMillis);
+    }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
         Graphics2D g2 = (Graphics2D) g.create();
         try {
-            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
             int cx = getWidth() / 2;
             int cy = getHeight() / 2;
             int radius = Math.min(cx, cy) - 20;
+            if (radius <= 0) return;
 
-            // фон циферблата
-            g2.setColor(new Color(240, 240, 240));
-            g2.fillOval(cx - radius, cy - radius, radius * 2, radius * 2);
-
-            g2.setColor(Color.BLACK);
-            g2.setStroke(new BasicStroke(2f));
-            g2.drawOval(cx - radius, cy - radius, radius * 2, radius * 2);
+            // циферблат и деления — готовая картинка
+            g2.drawImage(dialImage(radius), 0, 0, null);
 
-            // деления
-            for (int i = 0; i < 60; i++) {
-                double angle = Math.toRadians(i * 6 - 90);
-                int inner = (i % 5 == 0) ? (int) (radius * 0.85) : (int) (radius * 0.92);
-                int x1 = cx + (int) (Math.cos(angle) * inner);
-                int y1 = cy + (int) (Math.sin(angle) * inner);
-                int x2 = cx + (int) (Math.cos(angle) * radius);
-                int y2 = cy + (int) (Math.sin(angle) * radius);
-                g2.drawLine(x1, y1, x2, y2);
-            }
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
             // стрелка
-            double secondsWithFrac = (currentTimeMillis % 60000L) / 1000.0;
-            double angle = Math.toRadians((secondsWithFrac / 60.0) * 360 - 90);
+            int step = trigStep(currentTimeMillis);
             int handLength = (int) (radius * 0.8);
-            int x2 = cx + (int) (Math.cos(angle) * handLength);
-            int y2 = cy + (int) (Math.sin(angle) * handLength);
+            int x2 = cx + (int) (COS[step] * handLength);
+            int y2 = cy + (int) (SIN[step] * handLength);
 
-            g2.setStroke(new BasicStroke(3f));
-            g2.setColor("Часы".equals(modeLabel) ? new Color(40, 40, 40) : new Color(40, 40, 200));
+            g2.setStroke(HAND_STROKE);
+            g2.setColor("Часы".equals(modeLabel) ? HAND_CLOCK : HAND_STOPWATCH);
             g2.drawLine(cx, cy, x2, y2);
 
             g2.fillOval(cx - 4, cy - 4, 8, 8);
 
-            // метки событий
-            g2.setColor(new Color(200, 50, 50));
-            synchronized (displayEvents) {
-                for (ClockEvent e : displayEvents) {
-                    long ts = e.getTimestampMillis();
-                    double secFrac = (ts % 60000L) / 1000.0;
-                    double a = Math.toRadians((secFrac / 60.0) * 360 - 90);
-                    int ex = cx + (int) (Math.cos(a) * (radius * 0.9));
-                    int ey = cy + (int) (Math.sin(a) * (radius * 0.9));
-                    g2.fillOval(ex - 4, ey - 4, 8, 8);
-                }
-            }
+            // метки событий: кольцо плотности, цвет корзины — доля от самой заполненной
+            paintHeatRing(g2, cx, cy, radius * 0.9);
 
             // цифровое время
-            g2.setFont(getFont().deriveFont(Font.BOLD, 14f));
-            String digital = renderDigital();
+            updateFonts();
+            g2.setFont(digitalFont);
+            int digitalLen = renderDigital(digitalBuf);
             FontMetrics fm = g2.getFontMetrics();
-            int textWidth = fm.stringWidth(digital);
+            int textWidth = fm.charsWidth(digitalBuf, 0, digitalLen);
             g2.setColor(Color.BLACK);
-            g2.drawString(digital, cx - textWidth / 2, cy + radius + fm.getAscent());
+            g2.drawChars(digitalBuf, 0, digitalLen, cx - textWidth / 2, cy + radius + fm.getAscent());
 
             // режим
-            g2.setFont(getFont().deriveFont(Font.PLAIN, 12f));
+            g2.setFont(labelFont);
             g2.drawString(modeLabel != null ? modeLabel : "", 8, 16);
 
         } finally {
             g2.dispose();
         }
+        if (firstPaint != null) {
+            SwingUtilities.invokeLater(firstPaint);
+            firstPaint = null;
+        }
+    }
+
+    private void paintHeatRing(Graphics2D g2, int cx, int cy, double markRadius) {
+        int max = 0;
+        for (int i = 0; i < EVENT_BINS; i++) max = Math.max(max, eventBins.get(i));
+        paintedMax = max;
+        if (max == 0) return;
+        g2.setStroke(HEAT_STROKE);
+        double span = 360.0 / EVENT_BINS;
+        for (int i = 0; i < EVENT_BINS; i++) {
+            int count = eventBins.get(i);
+            if (count <= 0) continue;
+            g2.setColor(HEAT[(int) ((long) count * (HEAT_LEVELS - 1) / max)]);
+            // Arc2D: 0° — "3 часа", против часовой; корзина i начинается на i * span по часовой от "12 часов"
+            heatArc.setArcByCenter(cx, cy, markRadius, 90 - (i + 1) * span, span, Arc2D.OPEN);
+            g2.draw(heatArc);
+        }
+    }
+
+    private static int trigStep(long millis) {
+        return (int) (Math.floorMod(millis, 60_000L) * TRIG_STEPS / 60_000L);
+    }
+
+    private BufferedImage dialImage(int radius) {
+        int w = getWidth();
+        int h = getHeight();
+        if (dialCache != null && dialCache.getWidth() == w && dialCache.getHeight() == h) return dialCache;
+
+        BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = img.createGraphics();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            int cx = w / 2;
+            int cy = h / 2;
+
+            // фон циферблата
+            g2.setColor(DIAL_FILL);
+            g2.fillOval(cx - radius, cy - radius, radius * 2, radius * 2);
+
+            g2.setColor(Color.BLACK);
+            g2.setStroke(DIAL_STROKE);
+            g2.drawOval(cx - radius, cy - radius, radius * 2, radius * 2);
+
+            // деления
+            for (int i = 0; i < 60; i++) {
+                int step = i * (TRIG_STEPS / 60);
+                int inner = (i % 5 == 0) ? (int) (radius * 0.85) : (int) (radius * 0.92);
+                int x1 = cx + (int) (COS[step] * inner);
+                int y1 = cy + (int) (SIN[step] * inner);
+                int x2 = cx + (int) (COS[step] * radius);
+                int y2 = cy + (int) (SIN[step] * radius);
+                g2.drawLine(x1, y1, x2, y2);
+            }
+        } finally {
+            g2.dispose();
+        }
+        dialCache = img;
+        return img;
+    }
+
+    private void updateFonts() {
+        Font f = getFont();
+        if (f != baseFont) {
+            baseFont = f;
+            digitalFont = f.deriveFont(Font.BOLD, 14f);
+            labelFont = f.deriveFont(Font.PLAIN, 12f);
+        }
+    }
+
+    // прямоугольник, который стрелка занимает в момент millis
+    private void repaintHand(long millis) {
+        int cx = getWidth() / 2;
+        int cy = getHeight() / 2;
+        int radius = Math.min(cx, cy) - 20;
+        if (radius <= 0) return;
+        int step = trigStep(millis);
+        int handLength = (int) (radius * 0.8);
+        int x2 = cx + (int) (COS[step] * handLength);
+        int y2 = cy + (int) (SIN[step] * handLength);
+        int x = Math.min(cx, x2) - HAND_MARGIN;
+        int y = Math.min(cy, y2) - HAND_MARGIN;
+        repaint(x, y, Math.abs(x2 - cx) + 2 * HAND_MARGIN + 1, Math.abs(y2 - cy) + 2 * HAND_MARGIN + 1);
+    }
+
+    private void repaintMarker(long timestampMillis) {
+        int cx = getWidth() / 2;
+        int cy = getHeight() / 2;
+        int radius = Math.min(cx, cy) - 20;
+        if (radius <= 0) return;
+        int a = trigStep(timestampMillis);
+        int ex = cx + (int) (COS[a] * (radius * 0.9));
+        int ey = cy + (int) (SIN[a] * (radius * 0.9));
+        repaint(ex - 7, ey - 7, 15, 15);
+    }
+
+    // строка цифрового времени под циферблатом
+    private void repaintDigital() {
+        int cy = getHeight() / 2;
+        int radius = Math.min(getWidth() / 2, cy) - 20;
+        int top = cy + radius;
+        repaint(0, top, getWidth(), getHeight() - top);
     }
 
-    private String renderDigital() {
+    // пишет цифровое время в буфер без промежуточных строк, возвращает длину
+    private int renderDigital(char[] buf) {
         if ("Часы".equals(modeLabel)) {
-            ZonedDateTime zdt = Instant.ofEpochMilli(currentTimeMillis).atZone(ZoneId.systemDefault());
-            return zdt.format(digitalFormatter);
+            return digitalFormatter.formatWallClock(currentTimeMillis, buf, 0);
         } else {
-            long ms = currentTimeMillis;
-            long hours = ms / (1000L * 60 * 60);
-            long minutes = (ms / (1000L * 60)) % 60;
-            long seconds = (ms / 1000) % 60;
-            long millis = ms % 1000;
-            return String.format("%02d:%02d:%02d.%03d", hours, minutes, seconds, millis);
+            return ClockTimeFormatter.formatElapsed(currentTimeMillis, buf, 0);
         }
     }
 }
@@ -2,18 +2,40 @@ package com.example.view;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Окно лога: хранит не больше capacity последних строк в кольцевом буфере,
+ * показывает их через JList (рисуются только видимые строки).
+ * log() можно вызывать из любого потока — строки копятся в очереди и добавляются
+ * одной задачей EDT на всю пачку.
+ */
 public class LogWindow extends JFrame {
 
-    private final JTextArea textArea = new JTextArea();
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    private final RingListModel model;
+    private final JList<String> list;
+    private final Queue<String> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final Runnable flushTask = this::flush;
 
     public LogWindow() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LogWindow(int capacity) {
         super("Log");
 
-        textArea.setEditable(false);
-        textArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 14));
+        model = new RingListModel(Math.max(1, capacity));
+        list = new JList<>(model);
+        list.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 14));
+        // фиксированная высота строки: JList не измеряет все элементы
+        list.setPrototypeCellValue("[As a Panel's log] Event added: [0000000000000] Tick");
 
-        JScrollPane scroll = new JScrollPane(textArea);
+        JScrollPane scroll = new JScrollPane(list);
 
         add(scroll, BorderLayout.CENTER);
 
@@ -23,9 +45,81 @@ public class LogWindow extends JFrame {
     }
 
     public void log(String message) {
-        SwingUtilities.invokeLater(() -> {
-            textArea.append(message + "\n");
-            textArea.setCaretPosition(textArea.getDocument().getLength());
-        });
+        pending.add(message);
+        if (wip.getAndIncrement() == 0) {
+            SwingUtilities.invokeLater(flushTask);
+        }
+    }
+
+    private void flush() {
+        int missed = wip.get();
+        int lastIndex = model.getSize() - 1;
+        boolean atBottom = lastIndex < 0 || list.getLastVisibleIndex() >= lastIndex;
+
+        String line;
+        while ((line = pending.poll()) != null) {
+            model.append(line);
+        }
+        model.fireBatch();
+
+        if (atBottom && model.getSize() > 0) {
+            list.ensureIndexIsVisible(model.getSize() - 1);
+        }
+        if (wip.addAndGet(-missed) != 0) {
+            SwingUtilities.invokeLater(flushTask);
+        }
+    }
+
+    /**
+     * Модель JList поверх кольцевого буфера; изменения копятся и сообщаются одной парой событий.
+     * Используется только из EDT.
+     */
+    private static final class RingListModel extends AbstractListModel<String> {
+        private final String[] lines;
+        private int start;
+        private int size;
+        private int batchStartSize = -1; // размер, который видел JList до текущей пачки
+        private int batchEvicted;
+
+        RingListModel(int capacity) {
+            this.lines = new String[capacity];
+        }
+
+        void append(String line) {
+            if (batchStartSize < 0) batchStartSize = size;
+            if (size < lines.length) {
+                lines[(start + size) % lines.length] = line;
+                size++;
+            } else {
+                lines[start] = line;
+                start = (start + 1) % lines.length;
+                batchEvicted++;
+            }
+        }
+
+        void fireBatch() {
+            if (batchStartSize < 0) return;
+            // из старых строк ушли первые removed, остальные сдвинулись в начало; всё после них — новое
+            int removed = Math.min(batchEvicted, batchStartSize);
+            if (removed > 0) {
+                fireIntervalRemoved(this, 0, removed - 1);
+            }
+            int kept = batchStartSize - removed;
+            if (size > kept) {
+                fireIntervalAdded(this, kept, size - 1);
+            }
+            batchStartSize = -1;
+            batchEvicted = 0;
+        }
+
+        @Override
+        public int getSize() {
+            return size;
+        }
+
+        @Override
+        public String getElementAt(int index) {
+            return lines[(start + index) % lines.length];
+        }
     }
 }
@@ -0,0 +1,97 @@
+package com.example.view;
+
+import com.example.listener.UIListener;
+import com.example.model.ClockEvent;
+import com.example.model.WorldClockStrategy;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Табло мирового времени: сетка "город / HH:mm:ss" по зонам WorldClockStrategy.
+ * Все зоны рисуются от одного значения времени из onTimeUpdated, время зоны —
+ * арифметика по кэшированному смещению; перерисовка — раз в секунду, когда меняются цифры.
+ */
+public class WorldClockPanel extends JPanel implements UIListener {
+
+    private static final int CELL_WIDTH = 150;
+    private static final int CELL_HEIGHT = 48;
+    private static final Color LABEL_COLOR = new Color(90, 90, 90);
+
+    private final WorldClockStrategy strategy;
+    private volatile long currentTimeMillis;
+    private long shownSecond = Long.MIN_VALUE; // только EDT
+    private final char[] buf = new char[16];    // только EDT
+    private Font baseFont, labelFont, timeFont;
+
+    public WorldClockPanel(WorldClockStrategy strategy) {
+        this.strategy = strategy;
+        int n = Math.max(1, strategy.getZoneCount());
+        int columns = (int) Math.ceil(Math.sqrt(n));
+        int rows = (n + columns - 1) / columns;
+        setPreferredSize(new Dimension(columns * CELL_WIDTH, rows * CELL_HEIGHT));
+        setBackground(Color.WHITE);
+    }
+
+    @Override
+    public void onTimeUpdated(long currentTimeMillis) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            // модель доставляет не в EDT (не EdtDispatcher) — shownSecond трогаем только в EDT
+            SwingUtilities.invokeLater(() -> onTimeUpdated(currentTimeMillis));
+            return;
+        }
+        this.currentTimeMillis = currentTimeMillis;
+        long second = Math.floorDiv(currentTimeMillis, 1000L);
+        if (second != shownSecond) {
+            shownSecond = second;
+            repaint();
+        }
+    }
+
+    @Override
+    public void onEventsUpdated(List<ClockEvent> eventsCopy) {
+    }
+
+    @Override
+    public void onModeChanged(String modeLabel) {
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            updateFonts();
+            int columns = Math.max(1, getWidth() / CELL_WIDTH);
+            long now = currentTimeMillis;
+            Rectangle clip = g2.getClipBounds();
+            FontMetrics labelMetrics = g2.getFontMetrics(labelFont);
+            FontMetrics timeMetrics = g2.getFontMetrics(timeFont);
+            for (int i = 0; i < strategy.getZoneCount(); i++) {
+                int x = (i % columns) * CELL_WIDTH;
+                int y = (i / columns) * CELL_HEIGHT;
+                if (clip != null && !clip.intersects(x, y, CELL_WIDTH, CELL_HEIGHT)) continue;
+                g2.setFont(labelFont);
+                g2.setColor(LABEL_COLOR);
+                g2.drawString(strategy.getZoneLabel(i), x + 8, y + 4 + labelMetrics.getAscent());
+                g2.setFont(timeFont);
+                g2.setColor(Color.BLACK);
+                int len = strategy.formatZone(i, now, buf, 0);
+                g2.drawChars(buf, 0, len, x + 8, y + CELL_HEIGHT - 6 - timeMetrics.getDescent());
+            }
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    private void updateFonts() {
+        Font f = getFont();
+        if (f != baseFont) {
+            baseFont = f;
+            labelFont = f.deriveFont(Font.PLAIN, 11f);
+            timeFont = f.deriveFont(Font.BOLD, 18f);
+        }
+    }
+}